@@ -0,0 +1,17 @@
+#!/usr/bin/env bash
+set -E -o nounset -o errexit +o posix -o pipefail
+shopt -s inherit_errexit
+
+# Compiles sources for Java 11 into META-INF/versions/11 of a multi-release jar.
+# The main compilation, which targets Java 8, is left to maven-compiler-plugin.
+#
+# usage: compile-java11.sh JAVAC SOURCE_DIR CLASSES_DIR CLASSPATH
+function main() {
+  local _javac="${1}" _src="${2}" _classes="${3}" _classpath="${4}"
+  local _out="${_classes}/META-INF/versions/11"
+  mkdir -p "${_out}"
+  find "${_src}" -type f -name '*.java' -print0 |
+    xargs -0 "${_javac}" --release 11 -encoding UTF-8 -Xlint:all -Werror -classpath "${_classes}:${_classpath}" -d "${_out}"
+}
+
+main "${@}"
@@ -0,0 +1,67 @@
+package com.github.dakusui.crest.it;
+
+import com.github.dakusui.crest.Crest;
+import com.github.dakusui.crest.core.CallSites;
+import com.github.dakusui.crest.core.FlightRecording;
+import com.github.dakusui.crest.utils.TestBase;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static com.github.dakusui.crest.Crest.asInteger;
+import static org.junit.Assert.*;
+
+/**
+ * Examines classes under {@code META-INF/versions/11} of the packaged jar, which
+ * take effect only when the jar is on the classpath of Java 11 or later. Run by
+ * {@code maven-failsafe-plugin} with a system property {@code thincrest.jfr}.
+ */
+public class MultiReleaseJarIT extends TestBase {
+  @Test
+  public void whenLoaded$thenClassesForJava11AreUsed() throws ClassNotFoundException {
+    assertTrue(FlightRecording.enabled());
+    // Events exist only in the version for Java 11.
+    assertNotNull(Class.forName("com.github.dakusui.crest.core.FlightRecording$AssertionEvent"));
+  }
+
+  @Test
+  public void whenCallSitesCaller$thenFrameOfThisTestIsReturned() {
+    String caller = CallSites.caller();
+
+    assertTrue(caller, caller.startsWith(MultiReleaseJarIT.class.getName() + ".whenCallSitesCaller$thenFrameOfThisTestIsReturned("));
+  }
+
+  @Test
+  public void givenRecording$whenAssert$thenEventsAreEmitted() throws Exception {
+    Path file = Files.createTempFile("thincrest", ".jfr");
+    try (Recording recording = new Recording()) {
+      for (String each : new String[] { "Assertion", "Function", "Predicate", "ReportRendering", "MethodResolution" })
+        recording.enable("com.github.dakusui.thincrest." + each);
+      recording.start();
+      Crest.assertThat("hello", asInteger("length").gt(3).$());
+      try {
+        Crest.assertThat("hi", asInteger("length").gt(3).$());
+        fail();
+      } catch (AssertionError expected) {
+        // Renders a report.
+      }
+      recording.stop();
+      recording.dump(file);
+      List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+      Set<String> names = events.stream().map(e -> e.getEventType().getName()).collect(Collectors.toSet());
+
+      assertTrue(names.toString(), names.contains("com.github.dakusui.thincrest.Assertion"));
+      assertTrue(names.toString(), names.contains("com.github.dakusui.thincrest.Function"));
+      assertTrue(names.toString(), names.contains("com.github.dakusui.thincrest.ReportRendering"));
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+}
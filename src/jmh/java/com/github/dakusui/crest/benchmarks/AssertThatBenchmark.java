@@ -0,0 +1,71 @@
+package com.github.dakusui.crest.benchmarks;
+
+import com.github.dakusui.crest.Crest;
+import com.github.dakusui.crest.core.Matcher;
+import org.openjdk.jmh.annotations.*;
+import org.opentest4j.AssertionFailedError;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.github.dakusui.crest.Crest.*;
+
+/**
+ * Measures {@code assertThat} with a leaf matcher, {@code allOf}, and {@code anyOf},
+ * each of which passes or fails. A failing one includes the cost of building
+ * its report and the exception.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AssertThatBenchmark {
+  @Param({ "LEAF", "ALL_OF", "ANY_OF" })
+  public String shape;
+
+  private final String value = "Hello, world";
+
+  private Matcher<String> passing;
+  private Matcher<String> failing;
+
+  @SuppressWarnings("unchecked")
+  @Setup
+  public void setUp() {
+    Matcher<String> startsWithHello = (Matcher<String>) Crest.<String>asString().startsWith("Hello").$();
+    Matcher<String> startsWithBye = (Matcher<String>) Crest.<String>asString().startsWith("Bye").$();
+    Matcher<String> longerThan5 = (Matcher<String>) asInteger(function("length", String::length)).gt(5).$();
+    Matcher<String> longerThan50 = (Matcher<String>) asInteger(function("length", String::length)).gt(50).$();
+    switch (shape) {
+    case "LEAF":
+      this.passing = startsWithHello;
+      this.failing = startsWithBye;
+      break;
+    case "ALL_OF":
+      this.passing = allOf(startsWithHello, longerThan5);
+      this.failing = allOf(startsWithHello, longerThan50);
+      break;
+    case "ANY_OF":
+      this.passing = anyOf(startsWithBye, longerThan5);
+      this.failing = anyOf(startsWithBye, longerThan50);
+      break;
+    default:
+      throw new IllegalArgumentException(shape);
+    }
+  }
+
+  @Benchmark
+  public void passing() {
+    assertThat(value, passing);
+  }
+
+  @Benchmark
+  public Object failing() {
+    try {
+      assertThat(value, failing);
+      throw new IllegalStateException("Must not pass");
+    } catch (AssertionFailedError e) {
+      return e;
+    }
+  }
+}
@@ -0,0 +1,50 @@
+package com.github.dakusui.crest.benchmarks;
+
+import com.github.dakusui.crest.Crest;
+import com.github.dakusui.crest.core.AsyncVerifier;
+import com.github.dakusui.crest.core.Matcher;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.github.dakusui.crest.Crest.requireThat;
+
+/**
+ * Compares the cost for a caller of examining a value on its own thread with
+ * {@code requireThat} to the one of handing it to an {@link AsyncVerifier}.
+ * The verifier drops values when its workers fall behind.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AsyncVerifierBenchmark {
+  private final String value = "hello, world";
+
+  private Matcher<String> matcher;
+  private AsyncVerifier   verifier;
+
+  @SuppressWarnings("unchecked")
+  @Setup
+  public void setUp() {
+    this.matcher = (Matcher<String>) Crest.<String>asString().startsWith("hello").containsString("world").$();
+    this.verifier = AsyncVerifier.create(AsyncVerifier.Policy.defaultPolicy(), AsyncVerifier.Listener.UNCAUGHT);
+  }
+
+  @TearDown
+  public void tearDown() {
+    this.verifier.close();
+  }
+
+  @Benchmark
+  public void requireThatOnCaller() {
+    requireThat(value, matcher);
+  }
+
+  @Benchmark
+  public boolean submit() {
+    return verifier.submit("", value, matcher);
+  }
+}
@@ -0,0 +1,50 @@
+package com.github.dakusui.crest.benchmarks;
+
+import com.github.dakusui.crest.core.Matcher;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static com.github.dakusui.crest.Crest.*;
+
+/**
+ * Compares {@code assertThat} called for each element in a loop and {@code assertAll}
+ * over a large data set, all elements of which pass.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BulkBenchmark {
+  @Param({ "100000" })
+  public int size;
+
+  private List<String>    values;
+  private Matcher<String> matcher;
+
+  @SuppressWarnings("unchecked")
+  @Setup
+  public void setUp() {
+    this.values = IntStream.range(0, size).mapToObj(i -> "value-" + i).collect(Collectors.toList());
+    this.matcher = allOf(
+        asString().startsWith("value-").$(),
+        asInteger(function("length", String::length)).gt(5).lt(20).$()
+    );
+  }
+
+  @Benchmark
+  public void assertThatInLoop() {
+    for (String each : values)
+      assertThat(each, matcher);
+  }
+
+  @Benchmark
+  public void assertAllInParallel() {
+    assertAll(values, matcher);
+  }
+}
@@ -0,0 +1,50 @@
+package com.github.dakusui.crest.benchmarks;
+
+import com.github.dakusui.crest.Crest;
+import com.github.dakusui.crest.core.CallSiteStatistics;
+import com.github.dakusui.crest.core.Matcher;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.github.dakusui.crest.Crest.requireThat;
+
+/**
+ * Measures {@code requireThat} from all the available threads with the global
+ * call-site statistics enabled, with and without a message. Either way, a call
+ * site is identified by a stack walk.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(Threads.MAX)
+@State(Scope.Benchmark)
+public class CallSiteStatisticsBenchmark {
+  private final String value = "hello, world";
+
+  private Matcher<String> matcher;
+
+  @SuppressWarnings("unchecked")
+  @Setup
+  public void setUp() {
+    this.matcher = (Matcher<String>) Crest.<String>asString().startsWith("hello").$();
+    CallSiteStatistics.enable();
+  }
+
+  @TearDown
+  public void tearDown() {
+    CallSiteStatistics.disable();
+  }
+
+  @Benchmark
+  public void taggedByMessage() {
+    requireThat("greeting", value, matcher);
+  }
+
+  @Benchmark
+  public void identifiedByStack() {
+    requireThat(value, matcher);
+  }
+}
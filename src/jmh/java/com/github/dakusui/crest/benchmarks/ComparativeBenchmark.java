@@ -0,0 +1,201 @@
+package com.github.dakusui.crest.benchmarks;
+
+import com.github.dakusui.crest.Crest;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.dakusui.crest.Crest.*;
+import static com.github.dakusui.thincrest_pcond.functions.Functions.size;
+
+/**
+ * Compares thincrest with Hamcrest and AssertJ on the scenarios of {@code InThincrest}
+ * and {@code InAssertJ} under {@code examples}. Each assertion is written as
+ * a user of each library would write it in a test, i.e., matchers and fluent
+ * assertions are built on every call.
+ * <p>
+ * {@code passing} measures the throughput of an assertion that passes, and
+ * {@code failing} the one of an assertion that fails, including the construction
+ * of its failure message. Run with {@code -prof gc} to see allocation per assertion,
+ * which {@code jmh} profile does by default.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ComparativeBenchmark {
+  public enum Library {
+    THINCREST,
+    HAMCREST,
+    ASSERTJ
+  }
+
+  public enum Scenario {
+    /**
+     * {@code qiita_12_13_14_15} of {@code InThincrest}.
+     */
+    STRING {
+      @Override
+      Runnable thincrest(List<String> list, boolean pass) {
+        String s = pass ? "fuga" : "***";
+        return () -> Crest.assertThat(list, Crest.<List<String>>asString().startsWith("[hoge").containsString(s).$());
+      }
+
+      @Override
+      Runnable hamcrest(List<String> list, boolean pass) {
+        String s = pass ? "fuga" : "***";
+        return () -> org.hamcrest.MatcherAssert.assertThat(list, org.hamcrest.Matchers.hasToString(
+            org.hamcrest.Matchers.allOf(org.hamcrest.Matchers.startsWith("[hoge"), org.hamcrest.Matchers.containsString(s))));
+      }
+
+      @Override
+      Runnable assertj(List<String> list, boolean pass) {
+        String s = pass ? "fuga" : "***";
+        return () -> org.assertj.core.api.Assertions.assertThat(list.toString()).startsWith("[hoge").contains(s);
+      }
+    },
+    /**
+     * {@code qiita_24_25_26_27_integer} of {@code InThincrest}.
+     */
+    INTEGER_RANGE {
+      @Override
+      Runnable thincrest(List<String> list, boolean pass) {
+        int value = pass ? 123 : 1230;
+        return () -> Crest.assertThat(value, Crest.<Integer>asInteger().gt(100).lt(200).$());
+      }
+
+      @Override
+      Runnable hamcrest(List<String> list, boolean pass) {
+        int value = pass ? 123 : 1230;
+        return () -> org.hamcrest.MatcherAssert.assertThat(value, org.hamcrest.Matchers.allOf(
+            org.hamcrest.Matchers.greaterThan(100), org.hamcrest.Matchers.lessThan(200)));
+      }
+
+      @Override
+      Runnable assertj(List<String> list, boolean pass) {
+        int value = pass ? 123 : 1230;
+        return () -> org.assertj.core.api.Assertions.assertThat(value).isGreaterThan(100).isLessThan(200);
+      }
+    },
+    /**
+     * {@code withThincrest2} of {@code InThincrest} and {@code test} of {@code InAssertJ}.
+     */
+    LIST_CONTAINS_ALL {
+      @Override
+      Runnable thincrest(List<String> list, boolean pass) {
+        List<String> expected = expected(pass);
+        return () -> Crest.assertThat(list, allOf(
+            asInteger(size()).eq(3).$(),
+            asObjectList().containsAll(expected).$()
+        ));
+      }
+
+      @Override
+      Runnable hamcrest(List<String> list, boolean pass) {
+        String[] expected = expected(pass).toArray(new String[0]);
+        return () -> org.hamcrest.MatcherAssert.assertThat(list, org.hamcrest.Matchers.<List<String>>allOf(
+            org.hamcrest.Matchers.hasSize(3), org.hamcrest.Matchers.hasItems(expected)));
+      }
+
+      @Override
+      Runnable assertj(List<String> list, boolean pass) {
+        String[] expected = expected(pass).toArray(new String[0]);
+        return () -> org.assertj.core.api.Assertions.assertThat(list).hasSize(3).contains(expected);
+      }
+
+      private List<String> expected(boolean pass) {
+        return pass ? Arrays.asList("hoge", "fuga", "piyo") : Arrays.asList("hoge", "fuga", "piyo", "poyo");
+      }
+    },
+    /**
+     * {@code qiita_28} of {@code InThincrest} and {@code containsOnly} of {@code InAssertJ}.
+     * None of them cares about the order of elements.
+     */
+    LIST_CONTAINS_EXACTLY {
+      @Override
+      Runnable thincrest(List<String> list, boolean pass) {
+        List<String> expected = expected(pass);
+        return () -> Crest.assertThat(list, asObjectList().containsExactly(expected).$());
+      }
+
+      @Override
+      Runnable hamcrest(List<String> list, boolean pass) {
+        String[] expected = expected(pass).toArray(new String[0]);
+        return () -> org.hamcrest.MatcherAssert.assertThat(list, org.hamcrest.Matchers.containsInAnyOrder(expected));
+      }
+
+      @Override
+      Runnable assertj(List<String> list, boolean pass) {
+        String[] expected = expected(pass).toArray(new String[0]);
+        return () -> org.assertj.core.api.Assertions.assertThat(list).containsOnly(expected);
+      }
+
+      private List<String> expected(boolean pass) {
+        return pass ? Arrays.asList("piyo", "hoge", "fuga") : Arrays.asList("hoge", "fuga", "piyo", "hi");
+      }
+    };
+
+    abstract Runnable thincrest(List<String> list, boolean pass);
+
+    abstract Runnable hamcrest(List<String> list, boolean pass);
+
+    abstract Runnable assertj(List<String> list, boolean pass);
+
+    Runnable create(Library library, List<String> list, boolean pass) {
+      switch (library) {
+      case THINCREST:
+        return thincrest(list, pass);
+      case HAMCREST:
+        return hamcrest(list, pass);
+      case ASSERTJ:
+        return assertj(list, pass);
+      default:
+        throw new AssertionError(library);
+      }
+    }
+  }
+
+  @Param({ "THINCREST", "HAMCREST", "ASSERTJ" })
+  public Library library;
+
+  @Param({ "STRING", "INTEGER_RANGE", "LIST_CONTAINS_ALL", "LIST_CONTAINS_EXACTLY" })
+  public Scenario scenario;
+
+  private final List<String> aList = Collections.unmodifiableList(Arrays.asList("hoge", "fuga", "piyo"));
+
+  private Runnable passing;
+  private Runnable failing;
+
+  @Setup
+  public void setUp() {
+    this.passing = scenario.create(library, aList, true);
+    this.failing = scenario.create(library, aList, false);
+    this.passing.run();
+    try {
+      this.failing.run();
+    } catch (AssertionError e) {
+      return;
+    }
+    throw new IllegalStateException(library + ":" + scenario + " must fail");
+  }
+
+  @Benchmark
+  public void passing() {
+    passing.run();
+  }
+
+  @Benchmark
+  public String failing() {
+    try {
+      failing.run();
+      throw new IllegalStateException("Must not pass");
+    } catch (AssertionError e) {
+      return e.getMessage();
+    }
+  }
+}
@@ -0,0 +1,51 @@
+package com.github.dakusui.crest.benchmarks;
+
+import com.github.dakusui.crest.core.CompiledMatcher;
+import com.github.dakusui.crest.core.Matcher;
+import com.github.dakusui.crest.core.Session;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.github.dakusui.crest.Crest.*;
+
+/**
+ * Compares a matcher tree and a program compiled from it, both of which are
+ * built once and applied to a value repeatedly.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CompiledMatcherBenchmark {
+  private Matcher<String>         source;
+  private CompiledMatcher<String> compiled;
+
+  @SuppressWarnings("unchecked")
+  @Setup
+  public void setUp() {
+    this.source = allOf(
+        asString().startsWith("Hello").containsString("world").$(),
+        asInteger(function("length", String::length)).gt(5).lt(100).$(),
+        not(asString().isEmpty().$())
+    );
+    this.compiled = this.source.compile();
+  }
+
+  @Benchmark
+  public boolean sourceInFastPassMode() {
+    return Session.Mode.FAST_PASS.perform("Hello, world", source).isSuccessful();
+  }
+
+  @Benchmark
+  public boolean compiledInFastPassMode() {
+    return Session.Mode.FAST_PASS.perform("Hello, world", compiled).isSuccessful();
+  }
+
+  @Benchmark
+  public boolean compiledTest() {
+    return compiled.test("Hello, world");
+  }
+}
@@ -0,0 +1,61 @@
+package com.github.dakusui.crest.benchmarks;
+
+import com.github.dakusui.crest.Crest;
+import com.github.dakusui.crest.core.Matcher;
+import com.github.dakusui.crest.core.Session;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static com.github.dakusui.crest.Crest.*;
+
+/**
+ * Compares {@code EAGER}, {@code SHORT_CIRCUIT}, and {@code PARALLEL} strategies of composite
+ * matchers, whose result is determined by their first children and followed
+ * by expensive ones.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CompositeStrategyBenchmark {
+  @Param({ "EAGER", "SHORT_CIRCUIT", "PARALLEL" })
+  public Matcher.Composite.Strategy strategy;
+
+  private List<Integer>          value;
+  private Matcher<List<Integer>> conjunctive;
+  private Matcher<List<Integer>> disjunctive;
+
+  @SuppressWarnings("unchecked")
+  @Setup
+  public void setUp() {
+    this.value = IntStream.range(0, 10_000).boxed().collect(Collectors.toList());
+    this.conjunctive = allOf(
+        strategy,
+        asInteger(function("size", (List<Integer> l) -> l.size())).lt(0).$(),
+        Crest.<List<Integer>>asObject().check(predicate("containsNegative", (List<Integer> l) -> l.stream().anyMatch(i -> i < 0))).$(),
+        Crest.<List<Integer>>asObject().check(predicate("isSorted", (List<Integer> l) -> l.stream().sorted().collect(Collectors.toList()).equals(l))).$()
+    );
+    this.disjunctive = anyOf(
+        strategy,
+        asInteger(function("size", (List<Integer> l) -> l.size())).gt(0).$(),
+        Crest.<List<Integer>>asObject().check(predicate("containsNegative", (List<Integer> l) -> l.stream().anyMatch(i -> i < 0))).$(),
+        Crest.<List<Integer>>asObject().check(predicate("isSorted", (List<Integer> l) -> l.stream().sorted().collect(Collectors.toList()).equals(l))).$()
+    );
+  }
+
+  @Benchmark
+  public boolean failingConjunctive() {
+    return Session.Mode.FAST_PASS.perform(value, conjunctive).isSuccessful();
+  }
+
+  @Benchmark
+  public boolean passingDisjunctive() {
+    return Session.Mode.FAST_PASS.perform(value, disjunctive).isSuccessful();
+  }
+}
@@ -0,0 +1,55 @@
+package com.github.dakusui.crest.benchmarks;
+
+import com.github.dakusui.crest.Crest;
+import com.github.dakusui.crest.core.Executable;
+import com.github.dakusui.crest.core.Matcher;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.github.dakusui.crest.Crest.*;
+
+/**
+ * Compares probes, each of which is an assertion on a slow supplier, run one
+ * after another and run by {@code assertAllConcurrently}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConcurrentlyBenchmark {
+  @Param({ "16" })
+  public int numProbes;
+
+  @Param({ "5" })
+  public long latencyInMillis;
+
+  private Executable[] probes;
+
+  @SuppressWarnings("unchecked")
+  @Setup
+  public void setUp() {
+    Matcher<String> matcher = (Matcher<String>) Crest.<String>asString().startsWith("UP").$();
+    this.probes = new Executable[numProbes];
+    for (int i = 0; i < numProbes; i++)
+      this.probes[i] = () -> assertThat(fetchStatus(), matcher);
+  }
+
+  @Benchmark
+  public void sequential() throws Throwable {
+    for (Executable each : probes)
+      each.execute();
+  }
+
+  @Benchmark
+  public void concurrent() {
+    assertAllConcurrently(probes);
+  }
+
+  private String fetchStatus() throws InterruptedException {
+    Thread.sleep(latencyInMillis);
+    return "UP";
+  }
+}
@@ -0,0 +1,62 @@
+package com.github.dakusui.crest.benchmarks;
+
+import com.github.dakusui.crest.core.Matcher;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.dakusui.crest.Crest.*;
+import static java.util.Collections.singletonList;
+
+/**
+ * Measures {@code substringAfterRegex} and {@code sublistAfter} chains, which
+ * scan their targets from the start for each link.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EaterBenchmark {
+  @Param({ "100", "10000" })
+  public int size;
+
+  private String          text;
+  private List<String>    list;
+  private Matcher<String> regex;
+  private Matcher<Object> sublist;
+
+  @SuppressWarnings("unchecked")
+  @Setup
+  public void setUp() {
+    StringBuilder b = new StringBuilder();
+    this.list = new ArrayList<>(size + 3);
+    for (int i = 0; i < size; i++) {
+      b.append('z');
+      this.list.add("z" + i);
+    }
+    for (String each : new String[] { "abc", "def", "XYZ" }) {
+      b.append(each);
+      this.list.add(each);
+    }
+    b.append('Z');
+    this.list.add("Z");
+    this.text = b.toString();
+    this.regex = (Matcher<String>) asString(substringAfterRegex("ab.").after("d.f").after("XYZ").$()).equalTo("Z").$();
+    this.sublist = (Matcher<Object>) asListOf(String.class, sublistAfterElement("abc").afterElement("def").afterElement("XYZ").$())
+        .containsExactly(singletonList("Z")).$();
+  }
+
+  @Benchmark
+  public void regex() {
+    assertThat(text, regex);
+  }
+
+  @Benchmark
+  public void sublist() {
+    assertThat(list, sublist);
+  }
+}
@@ -0,0 +1,75 @@
+package com.github.dakusui.crest.benchmarks;
+
+import com.github.dakusui.crest.Crest;
+import com.github.dakusui.crest.core.Clock;
+import com.github.dakusui.crest.core.Eventually;
+import com.github.dakusui.crest.core.Matcher;
+import org.openjdk.jmh.annotations.*;
+import org.opentest4j.AssertionFailedError;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.dakusui.crest.Crest.*;
+
+/**
+ * Compares a retry loop around {@code assertThat} and {@code assertEventually}
+ * polling a value that is satisfied only at the last attempt. Both run with
+ * a clock that does not sleep, so that only the cost of failed attempts is
+ * measured.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EventuallyBenchmark {
+  private static final Clock NO_SLEEP = new Clock() {
+    @Override
+    public long nanoTime() {
+      return 0;
+    }
+
+    @Override
+    public void sleep(long nanos) {
+    }
+  };
+
+  @Param({ "100" })
+  public int attempts;
+
+  private Matcher<Integer>  matcher;
+  private Eventually.Policy policy;
+  private int               counter;
+
+  @SuppressWarnings("unchecked")
+  @Setup
+  public void setUp() {
+    this.matcher = allOf(
+        asInteger().ge(0).$(),
+        asInteger(function("remaining", (Integer i) -> attempts - i)).le(0).$()
+    );
+    this.policy = Eventually.Policy.fixed(Duration.ofNanos(1)).withClock(NO_SLEEP);
+  }
+
+  @Benchmark
+  public int retryLoop() {
+    counter = 0;
+    while (true) {
+      try {
+        assertThat(++counter, matcher);
+        return counter;
+      } catch (AssertionFailedError e) {
+        // retry
+      }
+    }
+  }
+
+  @Benchmark
+  public int assertEventually() {
+    counter = 0;
+    Crest.assertEventually(() -> ++counter, matcher, Duration.ofSeconds(1), policy);
+    return counter;
+  }
+}
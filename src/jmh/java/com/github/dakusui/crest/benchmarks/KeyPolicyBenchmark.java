@@ -0,0 +1,60 @@
+package com.github.dakusui.crest.benchmarks;
+
+import com.github.dakusui.crest.core.Matcher;
+import com.github.dakusui.crest.core.Session;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static com.github.dakusui.crest.Crest.*;
+
+/**
+ * Compares {@code IDENTITY} and {@code EQUALITY} key policies of {@code Session}
+ * with a large collection, whose {@code hashCode} and {@code equals} visit
+ * every element.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class KeyPolicyBenchmark {
+  @Param({ "IDENTITY", "EQUALITY" })
+  public Session.KeyPolicy keyPolicy;
+
+  @Param({ "1000000" })
+  public int size;
+
+  private List<Integer>          value;
+  private Matcher<List<Integer>> passing;
+  private Matcher<List<Integer>> failing;
+
+  @SuppressWarnings("unchecked")
+  @Setup
+  public void setUp() {
+    this.value = IntStream.range(0, size).boxed().collect(Collectors.toList());
+    this.passing = allOf(
+        asInteger(function("size", (List<Integer> l) -> l.size())).gt(0).$(),
+        asInteger(function("first", (List<Integer> l) -> l.get(0))).eq(0).$(),
+        asObject(function("last", (List<Integer> l) -> l.get(l.size() - 1))).isNotNull().$()
+    );
+    this.failing = allOf(
+        asInteger(function("size", (List<Integer> l) -> l.size())).lt(0).$(),
+        asInteger(function("first", (List<Integer> l) -> l.get(0))).eq(1).$()
+    );
+  }
+
+  @Benchmark
+  public boolean passingAssertion() {
+    return Session.perform(value, passing, Session.create(keyPolicy)).isSuccessful();
+  }
+
+  @Benchmark
+  public boolean failingAssertion() {
+    return Session.perform(value, failing, Session.create(keyPolicy)).isSuccessful();
+  }
+}
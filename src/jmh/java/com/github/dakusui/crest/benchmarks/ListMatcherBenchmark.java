@@ -0,0 +1,57 @@
+package com.github.dakusui.crest.benchmarks;
+
+import com.github.dakusui.crest.core.Matcher;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.dakusui.crest.Crest.*;
+
+/**
+ * Measures {@code containsAll} and {@code containsExactly} of {@code ListMatcherBuilder}
+ * from ten to a million elements. The expected collection is the actual list
+ * in reverse order, so that neither can be satisfied by comparing prefixes.
+ * <p>
+ * Both look elements up in lists, which makes them quadratic. A million elements
+ * take minutes per operation, and therefore they are measured only when requested
+ * by {@code -p size=1000000}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ListMatcherBenchmark {
+  @Param({ "10", "1000", "100000" })
+  public int size;
+
+  private List<Integer>   value;
+  private Matcher<Object> containsAll;
+  private Matcher<Object> containsExactly;
+
+  @SuppressWarnings("unchecked")
+  @Setup
+  public void setUp() {
+    this.value = new ArrayList<>(size);
+    for (int i = 0; i < size; i++)
+      this.value.add(i);
+    List<Integer> expected = new ArrayList<>(this.value);
+    Collections.reverse(expected);
+    this.containsAll = (Matcher<Object>) asListOf(Integer.class).containsAll(expected).$();
+    this.containsExactly = (Matcher<Object>) asListOf(Integer.class).containsExactly(expected).$();
+  }
+
+  @Benchmark
+  public void containsAll() {
+    assertThat(value, containsAll);
+  }
+
+  @Benchmark
+  public void containsExactly() {
+    assertThat(value, containsExactly);
+  }
+}
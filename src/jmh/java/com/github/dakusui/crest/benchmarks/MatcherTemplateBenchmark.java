@@ -0,0 +1,52 @@
+package com.github.dakusui.crest.benchmarks;
+
+import com.github.dakusui.crest.Crest;
+import com.github.dakusui.crest.matcherbuilders.MatcherTemplate;
+import com.github.dakusui.thincrest_pcond.functions.Predicates;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.github.dakusui.crest.Crest.*;
+
+/**
+ * Compares a data-driven assertion whose matcher is rebuilt by a builder for
+ * each row and the one bound from a template built once. Both call a method
+ * reflectively, whose resolution is cached.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MatcherTemplateBenchmark {
+  @Param({ "1000" })
+  public int numRows;
+
+  private String[][]                                          rows;
+  private MatcherTemplate.Binary<String, String, String, String> template;
+
+  @Setup
+  public void setUp() {
+    this.rows = new String[numRows][];
+    for (int i = 0; i < numRows; i++)
+      this.rows[i] = new String[] { "row-" + i + "-value", "ow-" + i, "value" };
+    this.template = Crest.<String>asString(call("substring", 1).$())
+        .template()
+        .with(String.class, Predicates::startsWith)
+        .with(String.class, Predicates::containsString);
+  }
+
+  @Benchmark
+  public void rebuiltForEachRow() {
+    for (String[] each : rows)
+      assertThat(each[0], Crest.<String>asString(call("substring", 1).$()).startsWith(each[1]).containsString(each[2]).$());
+  }
+
+  @Benchmark
+  public void boundFromTemplate() {
+    for (String[] each : rows)
+      assertThat(each[0], template.bind(each[1], each[2]));
+  }
+}
@@ -0,0 +1,84 @@
+package com.github.dakusui.crest.benchmarks;
+
+import com.github.dakusui.crest.core.Matcher;
+import com.github.dakusui.thincrest_pcond.functions.Predicates;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static com.github.dakusui.crest.Crest.*;
+
+/**
+ * Compares a hand-written lambda, a matcher converted by {@code asPredicate},
+ * and {@code Matcher.test} used as filters of a stream. {@code composed} is a
+ * lambda composed of the same functions and predicates as the matcher, which
+ * tells the cost of the matcher itself apart from theirs.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PredicateBenchmark {
+  @Param({ "100000" })
+  public int size;
+
+  private List<String>      values;
+  private Predicate<String> handWritten;
+  private Predicate<String> composed;
+  private Matcher<String>   matcher;
+  private Predicate<String> compiled;
+
+  @SuppressWarnings("unchecked")
+  @Setup
+  public void setUp() {
+    this.values = IntStream.range(0, size).mapToObj(i -> (i % 3 == 0 ? "value-" : "other-") + i).collect(Collectors.toList());
+    this.handWritten = s -> s.startsWith("value-") && s.length() > 6 && s.length() < 20;
+    Predicate<String> startsWith = Predicates.startsWith("value-");
+    Function<String, Integer> length = function("length", String::length);
+    Predicate<Integer> gt = Predicates.gt(6);
+    Predicate<Integer> lt = Predicates.lt(20);
+    this.composed = s -> startsWith.test(s) && gt.test(length.apply(s)) && lt.test(length.apply(s));
+    this.matcher = allOf(
+        asString().startsWith("value-").$(),
+        asInteger(length).gt(6).lt(20).$()
+    );
+    this.compiled = matcher.asPredicate();
+  }
+
+  @Benchmark
+  public long handWritten() {
+    return values.stream().filter(handWritten).count();
+  }
+
+  @Benchmark
+  public long composed() {
+    return values.stream().filter(composed).count();
+  }
+
+  @Benchmark
+  public long asPredicate() {
+    return values.stream().filter(compiled).count();
+  }
+
+  @Benchmark
+  public long matcherTest() {
+    return values.stream().filter(matcher::test).count();
+  }
+
+  @Benchmark
+  public long handWrittenParallel() {
+    return values.parallelStream().filter(handWritten).count();
+  }
+
+  @Benchmark
+  public long asPredicateParallel() {
+    return values.parallelStream().filter(compiled).count();
+  }
+}
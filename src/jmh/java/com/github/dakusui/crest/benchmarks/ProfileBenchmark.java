@@ -0,0 +1,51 @@
+package com.github.dakusui.crest.benchmarks;
+
+import com.github.dakusui.crest.Crest;
+import com.github.dakusui.crest.core.Matcher;
+import com.github.dakusui.crest.core.Profile;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.github.dakusui.crest.Crest.*;
+
+/**
+ * Compares a passing assertion with a profile of the same one, which tells the
+ * overhead of timing every node. Profiling is meant for investigations, not for
+ * hot paths.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProfileBenchmark {
+  private final String value = "hello, world";
+
+  private Matcher<String> matcher;
+
+  @SuppressWarnings("unchecked")
+  @Setup
+  public void setUp() {
+    this.matcher = (Matcher<String>) allOf(
+        Crest.<String>asString().startsWith("hello").containsString("world").$(),
+        asInteger(function("length", String::length)).gt(5).$()
+    );
+  }
+
+  @Benchmark
+  public void assertion() {
+    assertThat(value, matcher);
+  }
+
+  @Benchmark
+  public Profile profile() {
+    return Crest.profile(value, matcher);
+  }
+
+  @Benchmark
+  public String profileAndRender() {
+    return Crest.profile(value, matcher).render();
+  }
+}
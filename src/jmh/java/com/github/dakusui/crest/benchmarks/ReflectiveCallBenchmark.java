@@ -0,0 +1,60 @@
+package com.github.dakusui.crest.benchmarks;
+
+import com.github.dakusui.crest.Crest;
+import com.github.dakusui.crest.core.Matcher;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.github.dakusui.crest.Crest.*;
+
+/**
+ * Compares a chain of methods called through reflection, by {@code asObject(methodName)}
+ * and {@code call(...)}, with the same chain given as method references. The
+ * difference is the cost of resolving and invoking the methods reflectively.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ReflectiveCallBenchmark {
+  private final String value = "  Hello, world  ";
+
+  private Matcher<String> reflective;
+  private Matcher<String> chained;
+  private Matcher<String> methodReferences;
+
+  @SuppressWarnings("unchecked")
+  @Setup
+  public void setUp() {
+    this.reflective = (Matcher<String>) Crest.<String, String>asObject("trim")
+        .check(call("substring", 7).andThen("toUpperCase").$(), "WORLD"::equals)
+        .$();
+    this.chained = (Matcher<String>) (Matcher<?>) Crest.asObject(
+        call("trim").andThen("substring", 7).andThen("toUpperCase").andThen("length").$()
+    ).equalTo(5).$();
+    this.methodReferences = (Matcher<String>) Crest.asObject(
+        function("trim", String::trim)
+            .andThen(function("substring[7]", (String s) -> s.substring(7)))
+            .andThen(function("toUpperCase", String::toUpperCase))
+            .andThen(function("length", String::length))
+    ).equalTo(5).$();
+  }
+
+  @Benchmark
+  public void reflective() {
+    assertThat(value, reflective);
+  }
+
+  @Benchmark
+  public void chained() {
+    assertThat(value, chained);
+  }
+
+  @Benchmark
+  public void methodReferences() {
+    assertThat(value, methodReferences);
+  }
+}
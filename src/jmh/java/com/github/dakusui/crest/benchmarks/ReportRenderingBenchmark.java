@@ -0,0 +1,43 @@
+package com.github.dakusui.crest.benchmarks;
+
+import com.github.dakusui.crest.core.Matcher;
+import com.github.dakusui.crest.core.Report;
+import com.github.dakusui.crest.core.Session;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static com.github.dakusui.crest.Crest.*;
+
+/**
+ * Measures rendering a report of a failing assertion whose function is a chain
+ * of {@code depth} links, which are printed one per line in the mismatch.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ReportRenderingBenchmark {
+  @Param({ "1", "10", "50" })
+  public int depth;
+
+  private Matcher<Integer> matcher;
+
+  @SuppressWarnings("unchecked")
+  @Setup
+  public void setUp() {
+    Function<Integer, Integer> chain = function("inc[0]", (Integer v) -> v + 1);
+    for (int i = 1; i < depth; i++)
+      chain = chain.andThen(function("inc[" + i + "]", (Integer v) -> v + 1));
+    this.matcher = (Matcher<Integer>) asInteger(chain).lt(0).$();
+  }
+
+  @Benchmark
+  public String report() {
+    Report report = Session.perform(0, matcher);
+    return report.expectation() + report.mismatch();
+  }
+}
@@ -0,0 +1,52 @@
+package com.github.dakusui.crest.benchmarks;
+
+import com.github.dakusui.crest.core.CompiledMatcher;
+import com.github.dakusui.crest.core.IntMatcher;
+import com.github.dakusui.crest.core.Matcher;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.github.dakusui.crest.Crest.*;
+
+/**
+ * Compares passing preconditions checked with a matcher, a compiled matcher,
+ * and a primitive matcher. Run with {@code -prof gc} to see allocation rates.
+ * The value is boxed for the first two, and a value out of the range of the
+ * {@code Integer} cache is used so that it shows.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RequireThatBenchmark {
+  private int                      value = 1000;
+  private Matcher<Integer>         matcher;
+  private CompiledMatcher<Integer> compiled;
+  private IntMatcher               intMatcher;
+
+  @SuppressWarnings("unchecked")
+  @Setup
+  public void setUp() {
+    this.matcher = (Matcher<Integer>) asInteger().ge(0).lt(10_000).$();
+    this.compiled = matcher.compile();
+    this.intMatcher = IntMatcher.range(0, 10_000);
+  }
+
+  @Benchmark
+  public void withMatcher() {
+    requireThat(value, matcher);
+  }
+
+  @Benchmark
+  public void withCompiledMatcher() {
+    requireThat(value, compiled);
+  }
+
+  @Benchmark
+  public void withIntMatcher() {
+    requireThat(value, intMatcher);
+  }
+}
@@ -0,0 +1,59 @@
+package com.github.dakusui.crest.benchmarks;
+
+import com.github.dakusui.crest.Crest;
+import com.github.dakusui.crest.core.Matcher;
+import com.github.dakusui.crest.core.SampledCheck;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.github.dakusui.crest.Crest.requireThat;
+
+/**
+ * Compares {@code requireThat} with a matcher to the one with sampled checks,
+ * which examine every call, one percent of calls, and one of every hundred
+ * calls, respectively.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SampledCheckBenchmark {
+  private final String value = "hello, world";
+
+  private Matcher<String>      matcher;
+  private SampledCheck<String> always;
+  private SampledCheck<String> probability;
+  private SampledCheck<String> everyNth;
+
+  @SuppressWarnings("unchecked")
+  @Setup
+  public void setUp() {
+    this.matcher = (Matcher<String>) Crest.<String>asString().startsWith("hello").containsString("world").$();
+    this.always = SampledCheck.create(matcher, SampledCheck.Policy.always());
+    this.probability = SampledCheck.create(matcher, SampledCheck.Policy.probability(0.01));
+    this.everyNth = SampledCheck.create(matcher, SampledCheck.Policy.everyNth(100));
+  }
+
+  @Benchmark
+  public void matcher() {
+    requireThat(value, matcher);
+  }
+
+  @Benchmark
+  public void always() {
+    requireThat(value, always);
+  }
+
+  @Benchmark
+  public void probability() {
+    requireThat(value, probability);
+  }
+
+  @Benchmark
+  public void everyNth() {
+    requireThat(value, everyNth);
+  }
+}
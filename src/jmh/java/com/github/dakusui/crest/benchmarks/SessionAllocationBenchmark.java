@@ -0,0 +1,48 @@
+package com.github.dakusui.crest.benchmarks;
+
+import com.github.dakusui.crest.core.Matcher;
+import com.github.dakusui.crest.core.Session;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.github.dakusui.crest.Crest.*;
+
+/**
+ * Measures allocation per passing assertion in {@code DIAGNOSTIC} mode, with
+ * a session created for each call and with the one pooled by the mode.
+ * Run with {@code -prof gc} to see {@code gc.alloc.rate.norm}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SessionAllocationBenchmark {
+  private Matcher<String> matcher;
+
+  @SuppressWarnings("unchecked")
+  @Setup
+  public void setUp() {
+    this.matcher = allOf(
+        asString().startsWith("Hello").containsString("world").$(),
+        asInteger(function("length", String::length)).gt(5).lt(100).$()
+    );
+  }
+
+  @Benchmark
+  public boolean newSession() {
+    return Session.perform("Hello, world", matcher, Session.create()).isSuccessful();
+  }
+
+  @Benchmark
+  public boolean pooledSession() {
+    return Session.Mode.DIAGNOSTIC.perform("Hello, world", matcher).isSuccessful();
+  }
+
+  @Benchmark
+  public void passingRequireThat() {
+    requireThat("Hello, world", matcher);
+  }
+}
@@ -0,0 +1,53 @@
+package com.github.dakusui.crest.benchmarks;
+
+import com.github.dakusui.crest.Crest;
+import com.github.dakusui.crest.core.Matcher;
+import com.github.dakusui.crest.core.SessionListener;
+import com.github.dakusui.crest.core.SessionStatistics;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.github.dakusui.crest.Crest.*;
+
+/**
+ * Measures a passing assertion without any listener and with {@link SessionStatistics}
+ * installed, which tells the overhead of observing sessions.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SessionListenerBenchmark {
+  @Param({ "false", "true" })
+  public boolean installed;
+
+  private final String value = "hello, world";
+
+  private Matcher<String>   matcher;
+  private SessionStatistics statistics;
+
+  @SuppressWarnings("unchecked")
+  @Setup
+  public void setUp() {
+    this.matcher = (Matcher<String>) allOf(
+        Crest.<String>asString().startsWith("hello").containsString("world").$(),
+        asInteger(function("length", String::length)).gt(5).$()
+    );
+    this.statistics = new SessionStatistics();
+    if (installed)
+      SessionListener.install(statistics);
+  }
+
+  @TearDown
+  public void tearDown() {
+    SessionListener.uninstall(statistics);
+  }
+
+  @Benchmark
+  public void assertion() {
+    assertThat(value, matcher);
+  }
+}
@@ -0,0 +1,58 @@
+package com.github.dakusui.crest.benchmarks;
+
+import com.github.dakusui.crest.core.Matcher;
+import com.github.dakusui.crest.core.Session;
+import org.openjdk.jmh.annotations.*;
+import org.opentest4j.AssertionFailedError;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.github.dakusui.crest.Crest.*;
+
+/**
+ * Compares {@code DIAGNOSTIC} and {@code FAST_PASS} modes of {@code Session}
+ * for passing and failing assertions.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SessionModeBenchmark {
+  private static final Session.ExceptionFactory EXCEPTION_FACTORY = (msg, r, causes) -> new AssertionFailedError(msg, r.expectation(), r.mismatch());
+
+  @Param({ "DIAGNOSTIC", "FAST_PASS" })
+  public Session.Mode mode;
+
+  private Matcher<String> passing;
+  private Matcher<String> failing;
+
+  @SuppressWarnings("unchecked")
+  @Setup
+  public void setUp() {
+    this.passing = allOf(
+        asString().startsWith("Hello").containsString("world").$(),
+        asInteger(function("length", String::length)).gt(5).lt(100).$()
+    );
+    this.failing = allOf(
+        asString().startsWith("Hello").containsString("WORLD").$(),
+        asInteger(function("length", String::length)).gt(5).lt(10).$()
+    );
+  }
+
+  @Benchmark
+  public void passingAssertion() {
+    Session.perform("", "Hello, world", passing, EXCEPTION_FACTORY, mode);
+  }
+
+  @Benchmark
+  public Object failingAssertion() {
+    try {
+      Session.perform("", "Hello, world", failing, EXCEPTION_FACTORY, mode);
+      throw new IllegalStateException("Must not pass");
+    } catch (AssertionFailedError e) {
+      return e;
+    }
+  }
+}
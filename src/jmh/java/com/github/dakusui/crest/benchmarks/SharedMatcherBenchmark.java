@@ -0,0 +1,46 @@
+package com.github.dakusui.crest.benchmarks;
+
+import com.github.dakusui.crest.Crest;
+import com.github.dakusui.crest.core.Matcher;
+import com.github.dakusui.crest.matcherbuilders.AsString;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.github.dakusui.crest.Crest.*;
+
+/**
+ * Measures throughput of a matcher and a builder shared by all the cores.
+ * Run with {@code -t 1} and without it to see how it scales.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(Threads.MAX)
+@State(Scope.Benchmark)
+public class SharedMatcherBenchmark {
+  private AsString<String> builder;
+  private Matcher<String>  matcher;
+
+  @SuppressWarnings("unchecked")
+  @Setup
+  public void setUp() {
+    this.builder = Crest.<String>asString().startsWith("value-");
+    this.matcher = allOf(
+        builder.$(),
+        asInteger(function("length", String::length)).gt(6).lt(20).$()
+    );
+  }
+
+  @Benchmark
+  public void assertWithSharedMatcher() {
+    assertThat("value-12345", matcher);
+  }
+
+  @Benchmark
+  public Object deriveFromSharedBuilder() {
+    return builder.endsWith("5").containsString("123").$();
+  }
+}
@@ -0,0 +1,100 @@
+package com.github.dakusui.crest.benchmarks;
+
+import com.github.dakusui.crest.Crest;
+import com.github.dakusui.crest.core.Matcher;
+import com.github.dakusui.crest.core.Report;
+import com.github.dakusui.crest.core.Session;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.BenchmarkParams;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.github.dakusui.crest.Crest.asInteger;
+import static com.github.dakusui.crest.Crest.call;
+import static com.github.dakusui.crest.Crest.function;
+
+/**
+ * Measures cost of snapshots taken during an evaluation of a matcher.
+ * A value whose {@code toString} is expensive is examined, directly and through
+ * a chain of {@code call(...).andThen(...)} whose links return new values of
+ * the same type. On the passing paths, none of them must be rendered, which is
+ * verified on tear down.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SnapshotBenchmark {
+  public static class ExpensiveToString {
+    final int        value;
+    final AtomicLong toStringCount;
+
+    ExpensiveToString(int value, AtomicLong toStringCount) {
+      this.value = value;
+      this.toStringCount = toStringCount;
+    }
+
+    public ExpensiveToString next() {
+      return new ExpensiveToString(value + 1, toStringCount);
+    }
+
+    public int value() {
+      return value;
+    }
+
+    @Override
+    public String toString() {
+      toStringCount.incrementAndGet();
+      StringBuilder b = new StringBuilder();
+      for (int i = 0; i < 1_000; i++)
+        b.append(value);
+      return b.toString();
+    }
+  }
+
+  private ExpensiveToString          value;
+  private Matcher<ExpensiveToString> passing;
+  private Matcher<ExpensiveToString> failing;
+  private Matcher<ExpensiveToString> passingChain;
+  private Matcher<ExpensiveToString> failingChain;
+
+  @SuppressWarnings("unchecked")
+  @Setup
+  public void setUp() {
+    this.value = new ExpensiveToString(123, new AtomicLong());
+    this.passing = (Matcher<ExpensiveToString>) asInteger(function("value", (ExpensiveToString v) -> v.value)).gt(0).lt(1_000).$();
+    this.failing = (Matcher<ExpensiveToString>) asInteger(function("value", (ExpensiveToString v) -> v.value)).gt(1_000).$();
+    this.passingChain = (Matcher<ExpensiveToString>) Crest.<ExpensiveToString>asInteger(call("next").andThen("next").andThen("next").andThen("value").$()).gt(0).lt(1_000).$();
+    this.failingChain = (Matcher<ExpensiveToString>) Crest.<ExpensiveToString>asInteger(call("next").andThen("next").andThen("next").andThen("value").$()).gt(1_000).$();
+  }
+
+  @Benchmark
+  public Report passingAssertion() {
+    return Session.perform(value, passing);
+  }
+
+  @Benchmark
+  public String failingAssertion() {
+    return Session.perform(value, failing).mismatch();
+  }
+
+  @Benchmark
+  public Report passingChain() {
+    return Session.perform(value, passingChain);
+  }
+
+  @Benchmark
+  public String failingChain() {
+    return Session.perform(value, failingChain).mismatch();
+  }
+
+  @TearDown
+  public void tearDown(BenchmarkParams params) {
+    long toStringCount = value.toStringCount.get();
+    if (params.getBenchmark().contains(".passing") && toStringCount != 0)
+      throw new IllegalStateException("toString was called " + toStringCount + " times on passing path");
+  }
+}
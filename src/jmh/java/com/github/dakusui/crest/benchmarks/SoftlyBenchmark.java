@@ -0,0 +1,43 @@
+package com.github.dakusui.crest.benchmarks;
+
+import com.github.dakusui.crest.core.Matcher;
+import com.github.dakusui.crest.core.Softly;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.github.dakusui.crest.Crest.*;
+
+/**
+ * Measures the cost of a report of soft assertions, many of which fail, with
+ * and without a bound on the number of reports rendered.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SoftlyBenchmark {
+  @Param({ "100", "2147483647" })
+  public int maxReports;
+
+  @Param({ "5000" })
+  public int numAssertions;
+
+  private Matcher<Integer> matcher;
+
+  @SuppressWarnings("unchecked")
+  @Setup
+  public void setUp() {
+    this.matcher = (Matcher<Integer>) asInteger().check(predicate("isEven", (Integer i) -> i % 2 == 0)).$();
+  }
+
+  @Benchmark
+  public String halfFailing() {
+    Softly softly = Softly.create(maxReports);
+    for (int i = 0; i < numAssertions; i++)
+      softly.assertThat(i, matcher);
+    return softly.report().mismatch();
+  }
+}
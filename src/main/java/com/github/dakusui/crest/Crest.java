@@ -11,9 +11,13 @@ import org.opentest4j.AssertionFailedError;
 import org.opentest4j.TestAbortedException;
 
 import java.lang.reflect.Array;
+import java.time.Duration;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 import static com.github.dakusui.crest.utils.InternalUtils.*;
 import static com.github.dakusui.crest.utils.ReflectionUtils.trivial;
@@ -40,7 +44,24 @@ public enum Crest {
   @SafeVarargs
   public static <T> Matcher<T> allOf(Matcher<? super T>... matchers) {
     requireArgument(matchers, isEmptyArray().negate());
-    return Matcher.Conjunctive.create(asList(matchers));
+    return allOf(Matcher.Composite.Strategy.EAGER, matchers);
+  }
+
+  /**
+   * Creates a matcher that matches when all of given {@code matchers} match,
+   * whose children are evaluated with a given {@code strategy}.
+   * <pre>assertThat("myValue", allOf(SHORT_CIRCUIT, startsWith("my"), containsString("Val")))</pre>
+   *
+   * @param strategy A strategy to evaluate child matchers.
+   * @param matchers Child matchers.
+   * @param <T>      Type of the value to be matched with the returned matcher.
+   * @return A matcher that matches when all of given {@code matchers} match.
+   * @see Matcher.Composite.Strategy
+   */
+  @SafeVarargs
+  public static <T> Matcher<T> allOf(Matcher.Composite.Strategy strategy, Matcher<? super T>... matchers) {
+    requireArgument(matchers, isEmptyArray().negate());
+    return Matcher.Conjunctive.create(strategy, asList(matchers));
   }
 
   /**
@@ -55,7 +76,23 @@ public enum Crest {
   @SafeVarargs
   public static <T> Matcher<T> anyOf(Matcher<? super T>... matchers) {
     requireArgument(matchers, isEmptyArray().negate());
-    return Matcher.Disjunctive.create(asList(matchers));
+    return anyOf(Matcher.Composite.Strategy.EAGER, matchers);
+  }
+
+  /**
+   * Creates a matcher that matches when any of given {@code matchers} matches,
+   * whose children are evaluated with a given {@code strategy}.
+   *
+   * @param strategy A strategy to evaluate child matchers.
+   * @param matchers Child matchers.
+   * @param <T>      Type of the value to be matched with the returned matcher.
+   * @return A matcher that matches when any of given {@code matchers} matches.
+   * @see Matcher.Composite.Strategy
+   */
+  @SafeVarargs
+  public static <T> Matcher<T> anyOf(Matcher.Composite.Strategy strategy, Matcher<? super T>... matchers) {
+    requireArgument(matchers, isEmptyArray().negate());
+    return Matcher.Disjunctive.create(strategy, asList(matchers));
   }
 
   public static <T> Matcher<T> not(Matcher<? super T> matcher) {
@@ -63,9 +100,13 @@ public enum Crest {
   }
 
 
-  @SuppressWarnings("unchecked")
   public static <T> Matcher<T> noneOf(@SuppressWarnings("rawtypes") Matcher... matcher) {
-    return new Matcher.Composite.Base<T>(Arrays.asList(matcher)) {
+    return noneOf(Matcher.Composite.Strategy.EAGER, matcher);
+  }
+
+  @SuppressWarnings("unchecked")
+  public static <T> Matcher<T> noneOf(Matcher.Composite.Strategy strategy, @SuppressWarnings("rawtypes") Matcher... matcher) {
+    return new Matcher.Composite.Base<T>(strategy, Arrays.asList(matcher)) {
       @Override
       public String name() {
         return "noneOf";
@@ -309,6 +350,57 @@ public enum Crest {
     );
   }
 
+  /**
+   * Asserts that {@code value} satisfies {@code matcher} within given time limits.
+   * A leaf of {@code matcher} that does not finish within {@code perLeaf}, or once
+   * the entire assertion exceeds {@code total}, is given up and reported as an
+   * {@link EvaluationTimeoutException} in an {@link ExecutionFailure}.
+   *
+   * @param message A message of the exception thrown on a failure.
+   * @param value   A value to be examined.
+   * @param matcher A matcher to examine {@code value}.
+   * @param perLeaf A time limit for each leaf of {@code matcher}.
+   * @param total   A time limit for the entire assertion.
+   * @param <T>     The type of {@code value}.
+   * @see Session#timed(Duration, Duration)
+   */
+  public static <T> void assertThat(String message, T value, Matcher<? super T> matcher, Duration perLeaf, Duration total) {
+    Session.perform(
+        message, value, matcher,
+        (msg, r, causes) -> new AssertionFailedError(msg, r.expectation(), r.mismatch()),
+        Session.<T>timed(perLeaf, total)
+    );
+  }
+
+  public static <T> void assertEventually(Supplier<? extends T> supplier, Matcher<? super T> matcher, Duration timeout) {
+    assertEventually("", supplier, matcher, timeout, Eventually.Policy.defaultPolicy());
+  }
+
+  public static <T> void assertEventually(Supplier<? extends T> supplier, Matcher<? super T> matcher, Duration timeout, Eventually.Policy policy) {
+    assertEventually("", supplier, matcher, timeout, policy);
+  }
+
+  /**
+   * Asserts that a value given by {@code supplier} satisfies {@code matcher} before
+   * {@code timeout} elapses. The supplier is polled at intervals decided by
+   * {@code policy} and only the last value is reported on a failure.
+   *
+   * @param message  A message of the exception thrown on a failure.
+   * @param supplier A supplier of values to be examined.
+   * @param matcher  A matcher to examine the values.
+   * @param timeout  A time limit of the polling.
+   * @param policy   A policy that decides intervals between attempts.
+   * @param <T>      The type of the values.
+   * @see Eventually
+   */
+  public static <T> void assertEventually(String message, Supplier<? extends T> supplier, Matcher<? super T> matcher, Duration timeout, Eventually.Policy policy) {
+    Session.throwIfFailed(
+        message,
+        Eventually.await(supplier, matcher, timeout, policy),
+        (msg, r, causes) -> new AssertionFailedError(msg, r.expectation(), r.mismatch())
+    );
+  }
+
   public static <T> void assumeThat(String message, T value, Matcher<? super T> matcher) {
     Session.perform(
         message, value, matcher,
@@ -323,6 +415,200 @@ public enum Crest {
     );
   }
 
+  /**
+   * Asserts that every element in {@code values} satisfies {@code matcher}.
+   * Elements are examined in parallel with {@link Bulk.Policy#defaultPolicy()}.
+   * Functions and predicates in {@code matcher}, therefore, must be thread-safe.
+   *
+   * @param values  Values to be examined.
+   * @param matcher A matcher applied to each element.
+   * @param <T>     The type of the elements.
+   * @see Bulk
+   */
+  public static <T> void assertAll(Iterable<? extends T> values, Matcher<? super T> matcher) {
+    assertAll(values, matcher, Bulk.Policy.defaultPolicy());
+  }
+
+  public static <T> void assertAll(Iterable<? extends T> values, Matcher<? super T> matcher, Bulk.Policy policy) {
+    assertAll("", values.spliterator(), matcher, policy);
+  }
+
+  public static <T> void assertAll(Stream<? extends T> values, Matcher<? super T> matcher) {
+    assertAll(values, matcher, Bulk.Policy.defaultPolicy());
+  }
+
+  public static <T> void assertAll(Stream<? extends T> values, Matcher<? super T> matcher, Bulk.Policy policy) {
+    assertAll("", values.spliterator(), matcher, policy);
+  }
+
+  public static <T> void assertAll(Spliterator<? extends T> values, Matcher<? super T> matcher) {
+    assertAll("", values, matcher, Bulk.Policy.defaultPolicy());
+  }
+
+  /**
+   * Asserts that every element given by {@code values} satisfies {@code matcher}.
+   * On failures, an {@code AssertionFailedError} whose expected and actual values
+   * list failing elements with their indices is thrown.
+   *
+   * @param message A message of the exception thrown on failures.
+   * @param values  Values to be examined.
+   * @param matcher A matcher applied to each element.
+   * @param policy  A policy that decides when the assertion stops.
+   * @param <T>     The type of the elements.
+   * @see Bulk
+   */
+  public static <T> void assertAll(String message, Spliterator<? extends T> values, Matcher<? super T> matcher, Bulk.Policy policy) {
+    Session.throwIfFailed(
+        message,
+        Bulk.verify(values, matcher, policy),
+        (msg, r, causes) -> new AssertionFailedError(msg, r.expectation(), r.mismatch())
+    );
+  }
+
+  /**
+   * Runs {@code block} with a {@link Softly} object and throws a single exception
+   * that covers all the failures of assertions made through it, if any.
+   * <pre>
+   * softly(s -&gt; s
+   *     .assertThat(name, asString().startsWith("my").$())
+   *     .assertThat(age, asInteger().gt(20).$()));
+   * </pre>
+   *
+   * @param block A block that makes assertions.
+   * @see Softly
+   */
+  public static void softly(Consumer<Softly> block) {
+    softly("", block);
+  }
+
+  public static void softly(String message, Consumer<Softly> block) {
+    Softly softly = Softly.create();
+    block.accept(softly);
+    softly.verify(message);
+  }
+
+  public static <T> void requireThat(T value, CompiledMatcher<? super T> matcher) {
+    requireThat("", value, matcher);
+  }
+
+  /**
+   * Checks a precondition with a pre-built compiled matcher. When {@code value}
+   * satisfies it, this method allocates nothing by itself. Only when it does
+   * not, a session is created and a report is composed.
+   *
+   * @param message A message of the exception thrown on a failure.
+   * @param value   A value to be examined.
+   * @param matcher A compiled matcher to examine {@code value}.
+   * @param <T>     The type of {@code value}.
+   * @see Matcher#compile()
+   */
+  public static <T> void requireThat(String message, T value, CompiledMatcher<? super T> matcher) {
+    if (!matcher.test(value))
+      requireThat(message, value, matcher.source());
+  }
+
+  public static void requireThat(int value, IntMatcher matcher) {
+    requireThat("", value, matcher);
+  }
+
+  /**
+   * Checks a precondition on an {@code int} value without boxing it unless it
+   * does not satisfy {@code matcher}.
+   *
+   * @param message A message of the exception thrown on a failure.
+   * @param value   A value to be examined.
+   * @param matcher A matcher to examine {@code value}.
+   */
+  public static void requireThat(String message, int value, IntMatcher matcher) {
+    if (!matcher.test(value))
+      requireThat(message, value, matcher.boxed());
+  }
+
+  public static void requireThat(long value, LongMatcher matcher) {
+    requireThat("", value, matcher);
+  }
+
+  public static void requireThat(String message, long value, LongMatcher matcher) {
+    if (!matcher.test(value))
+      requireThat(message, value, matcher.boxed());
+  }
+
+  public static <T> void requireThat(T value, SampledCheck<? super T> check) {
+    requireThat("", value, check);
+  }
+
+  /**
+   * Checks a precondition with a check that examines only sampled calls and
+   * limits the number of full reports.
+   *
+   * @param message A message of the exception thrown on a failure.
+   * @param value   A value to be examined.
+   * @param check   A check to examine {@code value}.
+   * @param <T>     The type of {@code value}.
+   * @see SampledCheck
+   */
+  @SuppressWarnings("unchecked")
+  public static <T> void requireThat(String message, T value, SampledCheck<? super T> check) {
+    ((SampledCheck<T>) check).require(message, value);
+  }
+
+  public static <T> void verifyAsync(T value, Matcher<? super T> matcher) {
+    verifyAsync("", value, matcher);
+  }
+
+  /**
+   * Hands {@code value} to {@link AsyncVerifier#defaultVerifier()}, which examines
+   * it with {@code matcher} on a background thread. On a failure, the exception
+   * {@code assertThat} would throw is given to the uncaught exception handler
+   * of the thread. This method does not wait for the verification, and {@code value}
+   * is dropped if the queue of the verifier is full.
+   *
+   * @param message A message of the exception on a failure.
+   * @param value   A value to be examined.
+   * @param matcher A matcher to examine {@code value}.
+   * @param <T>     The type of {@code value}.
+   * @see AsyncVerifier
+   */
+  public static <T> void verifyAsync(String message, T value, Matcher<? super T> matcher) {
+    AsyncVerifier.defaultVerifier().submit(message, value, matcher);
+  }
+
+  /**
+   * Evaluates {@code matcher} with {@code value} and returns where the time went,
+   * node by node. Use this to find out why an assertion is slow, e.g.,
+   * {@code System.out.println(profile(value, matcher))}. This method does not
+   * throw even if {@code value} does not satisfy {@code matcher}.
+   *
+   * @param value   A value to be examined.
+   * @param matcher A matcher to examine {@code value}.
+   * @param <T>     The type of {@code value}.
+   * @return A profile of the evaluation.
+   * @see Profile
+   */
+  public static <T> Profile profile(T value, Matcher<? super T> matcher) {
+    return Session.profile(value, matcher);
+  }
+
+  public static void assertAllConcurrently(Executable... blocks) {
+    assertAllConcurrently("", blocks);
+  }
+
+  /**
+   * Runs {@code blocks}, each of which usually makes assertions, concurrently and
+   * waits for all of them. If any of them fails, an {@link ExecutionFailure} is
+   * thrown, whose cause is the first failure and whose suppressed exceptions are
+   * the rest, in the order of the blocks.
+   *
+   * @param message A message of the exception thrown on failures.
+   * @param blocks  Blocks to be run.
+   * @see Concurrently
+   */
+  public static void assertAllConcurrently(String message, Executable... blocks) {
+    Report report = Concurrently.run(blocks);
+    if (!report.isSuccessful())
+      throw new ExecutionFailure(message, report.expectation(), report.mismatch(), report.exceptions());
+  }
+
   @SuppressWarnings("unchecked")
   public static <T extends Throwable> T assertThrows(Class<T> expectedType, Executable executable) {
     try {
@@ -0,0 +1,381 @@
+package com.github.dakusui.crest.core;
+
+import org.opentest4j.AssertionFailedError;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.github.dakusui.crest.utils.InternalUtils.requireArgument;
+import static com.github.dakusui.crest.utils.InternalUtils.throwIfBlacklisted;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Verifies values off the caller's thread. A value and a matcher given to
+ * {@link #submit(String, Object, Matcher)} are put on a bounded queue and examined
+ * by background workers later, and a report of each failure is passed to
+ * a {@link Listener}. The caller pays only for an enqueue.
+ * <p>
+ * The queue is an {@link ArrayBlockingQueue} whose capacity is the one of the policy,
+ * and values being examined by workers do not count toward it. When it is full,
+ * a new value is handled as the {@link Overflow} of the policy specifies. Workers
+ * are daemon threads, and they keep running until {@link #close()} is called.
+ * Values submitted after that are rejected.
+ * <p>
+ * Since values are examined later, they must not be modified after they are
+ * submitted. Functions and predicates in matchers must be thread-safe.
+ *
+ * @see com.github.dakusui.crest.Crest#verifyAsync(Object, Matcher)
+ */
+public class AsyncVerifier implements AutoCloseable {
+  /**
+   * Receives reports of values that failed verification. It is called by a worker
+   * thread, and an exception thrown by it is ignored.
+   */
+  @FunctionalInterface
+  public interface Listener {
+    /**
+     * Gives the exception {@code assertThat} would throw for a report, i.e., an
+     * {@code AssertionFailedError} or an {@link ExecutionFailure}, to the uncaught
+     * exception handler of the worker thread. The worker keeps running.
+     */
+    Listener UNCAUGHT = (message, value, report) -> {
+      try {
+        Session.throwIfFailed(
+            message,
+            report,
+            (msg, r, causes) -> new AssertionFailedError(msg, r.expectation(), r.mismatch())
+        );
+      } catch (Throwable e) {
+        Thread worker = Thread.currentThread();
+        worker.getUncaughtExceptionHandler().uncaughtException(worker, e);
+      }
+    };
+
+    void failed(String message, Object value, Report report);
+  }
+
+  /**
+   * Decides what happens to a value submitted when the queue is full.
+   */
+  public enum Overflow {
+    /**
+     * Discards the submitted value.
+     */
+    DROP_NEWEST,
+    /**
+     * Discards the oldest value in the queue to make room for the submitted one.
+     */
+    DROP_OLDEST,
+    /**
+     * Blocks the caller until the queue has room, which gives the backpressure
+     * of the workers to it.
+     */
+    BLOCK
+  }
+
+  public static final class Policy {
+    public static final int      DEFAULT_CAPACITY = 1024;
+    public static final int      DEFAULT_WORKERS  = 1;
+    public static final Overflow DEFAULT_OVERFLOW = Overflow.DROP_NEWEST;
+
+    private final int      capacity;
+    private final int      workers;
+    private final Overflow overflow;
+
+    private Policy(int capacity, int workers, Overflow overflow) {
+      this.capacity = requireArgument(capacity, v -> v >= 1);
+      this.workers = requireArgument(workers, v -> v >= 1);
+      this.overflow = requireNonNull(overflow);
+    }
+
+    public static Policy defaultPolicy() {
+      return new Policy(DEFAULT_CAPACITY, DEFAULT_WORKERS, DEFAULT_OVERFLOW);
+    }
+
+    public Policy withCapacity(int capacity) {
+      return new Policy(capacity, this.workers, this.overflow);
+    }
+
+    public Policy withWorkers(int workers) {
+      return new Policy(this.capacity, workers, this.overflow);
+    }
+
+    public Policy withOverflow(Overflow overflow) {
+      return new Policy(this.capacity, this.workers, overflow);
+    }
+  }
+
+  private static final class Task {
+    final String          message;
+    final Object          value;
+    final Matcher<Object> matcher;
+    final long            enqueuedAt;
+
+    Task(String message, Object value, Matcher<Object> matcher, long enqueuedAt) {
+      this.message = message;
+      this.value = value;
+      this.matcher = matcher;
+      this.enqueuedAt = enqueuedAt;
+    }
+  }
+
+  private static final Task POISON = new Task("", null, null, 0);
+
+  private static class DefaultHolder {
+    static final AsyncVerifier INSTANCE = create(Policy.defaultPolicy(), Listener.UNCAUGHT);
+  }
+
+  private final Policy              policy;
+  private final Listener            listener;
+  private final BlockingQueue<Task> queue;
+  private final List<Thread>        workers;
+  /*
+   * Notified by a worker when no value is waiting or being examined.
+   */
+  private final Object              idle = new Object();
+
+  private final    LongAdder       submitted = new LongAdder();
+  private final    LongAdder       completed = new LongAdder();
+  private final    LongAdder       dropped   = new LongAdder();
+  private final    LongAdder       verified  = new LongAdder();
+  private final    LongAdder       failed    = new LongAdder();
+  private final    LongAccumulator maxLag    = new LongAccumulator(Math::max, 0);
+  private volatile long            lastLag   = 0;
+  private volatile boolean         closed    = false;
+
+  private AsyncVerifier(Policy policy, Listener listener) {
+    this.policy = policy;
+    this.listener = listener;
+    this.queue = new ArrayBlockingQueue<>(policy.capacity);
+    List<Thread> workers = new ArrayList<>(policy.workers);
+    for (int i = 0; i < policy.workers; i++) {
+      Thread worker = new Thread(this::work, "thincrest-verifier-" + i);
+      worker.setDaemon(true);
+      workers.add(worker);
+    }
+    this.workers = Collections.unmodifiableList(workers);
+    this.workers.forEach(Thread::start);
+  }
+
+  public static AsyncVerifier create(Policy policy, Listener listener) {
+    return new AsyncVerifier(requireNonNull(policy), requireNonNull(listener));
+  }
+
+  /**
+   * Returns a verifier shared in this JVM, which is created with {@link Policy#defaultPolicy()}
+   * and {@link Listener#UNCAUGHT} on the first call. It is never closed.
+   *
+   * @return The default verifier.
+   */
+  public static AsyncVerifier defaultVerifier() {
+    return DefaultHolder.INSTANCE;
+  }
+
+  /**
+   * Puts {@code value} on the queue to be examined by {@code matcher} later.
+   *
+   * @param message A message passed to the listener on a failure.
+   * @param value   A value to be examined.
+   * @param matcher A matcher to examine {@code value}.
+   * @param <T>     The type of {@code value}.
+   * @return {@code false} if {@code value} was dropped because the queue was full
+   * or this verifier was closed.
+   */
+  @SuppressWarnings("unchecked")
+  public <T> boolean submit(String message, T value, Matcher<? super T> matcher) {
+    requireNonNull(matcher);
+    if (closed) {
+      dropped.increment();
+      return false;
+    }
+    // Counted before the task is enqueued, so that a worker never completes
+    // a task not counted yet.
+    submitted.increment();
+    Task task = new Task(message, value, (Matcher<Object>) matcher, System.nanoTime());
+    // 'close' may have put poison pills before the task. Take it back unless a
+    // worker has already taken it.
+    if (!enqueue(task) || (closed && queue.remove(task))) {
+      submitted.decrement();
+      dropped.increment();
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Waits until all the values submitted so far are examined.
+   *
+   * @param timeout A time limit of waiting.
+   * @return {@code true} if no value was waiting or being examined within {@code timeout}.
+   * @throws InterruptedException The current thread was interrupted.
+   */
+  public boolean awaitIdle(Duration timeout) throws InterruptedException {
+    long deadline = System.nanoTime() + timeout.toNanos();
+    synchronized (idle) {
+      while (inFlight() > 0) {
+        long remaining = deadline - System.nanoTime();
+        if (remaining <= 0)
+          return false;
+        TimeUnit.NANOSECONDS.timedWait(idle, remaining);
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Stops accepting values and stops the workers after they examine the values
+   * already in the queue. It waits for room in the queue for the workers to stop.
+   */
+  @Override
+  public void close() {
+    synchronized (this) {
+      if (closed)
+        return;
+      closed = true;
+    }
+    for (int i = 0; i < workers.size(); i++)
+      putPoison();
+  }
+
+  /**
+   * Returns the number of values waiting in the queue, not including ones being
+   * examined.
+   *
+   * @return The depth of the queue.
+   */
+  public int queueDepth() {
+    return queue.size();
+  }
+
+  public long submitted() {
+    return submitted.sum();
+  }
+
+  public long dropped() {
+    return dropped.sum();
+  }
+
+  public long verified() {
+    return verified.sum();
+  }
+
+  public long failed() {
+    return failed.sum();
+  }
+
+  /**
+   * Returns the time the value examined last waited in the queue.
+   *
+   * @return The last lag.
+   */
+  public Duration lastLag() {
+    return Duration.ofNanos(lastLag);
+  }
+
+  public Duration maxLag() {
+    return Duration.ofNanos(maxLag.get());
+  }
+
+  private boolean enqueue(Task task) {
+    switch (policy.overflow) {
+    case DROP_NEWEST:
+      return queue.offer(task);
+    case DROP_OLDEST:
+      if (queue.offer(task))
+        return true;
+      Task oldest = queue.poll();
+      if (oldest == POISON) {
+        putPoison();
+        return false;
+      }
+      if (oldest != null) {
+        dropped.increment();
+        completed.increment();
+      }
+      // Another submitter may take the room. The task is dropped then, instead of retrying.
+      return queue.offer(task);
+    case BLOCK:
+      try {
+        queue.put(task);
+        return true;
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return false;
+      }
+    default:
+      throw new AssertionError(policy.overflow);
+    }
+  }
+
+  /*
+   * Puts a poison pill even if the current thread is interrupted. It never blocks
+   * forever because a worker that has not taken a poison pill is draining the queue.
+   */
+  private void putPoison() {
+    boolean interrupted = false;
+    while (true) {
+      try {
+        queue.put(POISON);
+        break;
+      } catch (InterruptedException e) {
+        interrupted = true;
+      }
+    }
+    if (interrupted)
+      Thread.currentThread().interrupt();
+  }
+
+  /*
+   * Reads 'completed' first. Since a task is counted as submitted before it can
+   * be completed, the result is never smaller than the actual number.
+   */
+  private long inFlight() {
+    long completed = this.completed.sum();
+    return this.submitted.sum() - completed;
+  }
+
+  private void work() {
+    while (true) {
+      Task task;
+      try {
+        task = queue.take();
+      } catch (InterruptedException e) {
+        return;
+      }
+      if (task == POISON)
+        return;
+      try {
+        verify(task);
+      } finally {
+        completed.increment();
+        if (inFlight() <= 0)
+          synchronized (idle) {
+            idle.notifyAll();
+          }
+      }
+    }
+  }
+
+  private void verify(Task task) {
+    long lag = System.nanoTime() - task.enqueuedAt;
+    lastLag = lag;
+    maxLag.accumulate(lag);
+    try {
+      if (!task.matcher.test(task.value)) {
+        failed.increment();
+        listener.failed(task.message, task.value, Session.perform(task.value, task.matcher));
+      }
+    } catch (Throwable e) {
+      throwIfBlacklisted(e);
+    } finally {
+      verified.increment();
+    }
+  }
+}
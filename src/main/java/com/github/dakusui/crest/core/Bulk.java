@@ -0,0 +1,250 @@
+package com.github.dakusui.crest.core;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static com.github.dakusui.crest.utils.InternalUtils.requireArgument;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Verifies every element in a data set with one matcher. Elements are read from
+ * a given {@code Spliterator} sequentially, divided into batches, and the batches
+ * are examined in parallel on a {@code ForkJoinPool}.
+ * <p>
+ * Each element is first examined by a matcher compiled from the given one. Only
+ * elements that do not pass it are evaluated again with a full-featured session
+ * to compose their individual reports.
+ *
+ * @see Matcher#compile()
+ * @see Policy
+ */
+public enum Bulk {
+  ;
+
+  /**
+   * A report of a bulk verification. Its expectation and mismatch consist of
+   * those of failing elements, each of which is prefixed with its index.
+   */
+  public interface BulkReport extends Report {
+    /**
+     * Returns failures found during the verification in ascending order of their
+     * indices.
+     *
+     * @return A list of failures.
+     */
+    List<Failure> failures();
+
+    /**
+     * Returns the number of elements examined. This can be smaller than the size
+     * of the data set if the verification stopped early.
+     *
+     * @return The number of elements examined.
+     */
+    long examined();
+  }
+
+  public interface Failure {
+    long index();
+
+    Report report();
+  }
+
+  /**
+   * Specifies when a bulk verification stops and how it is run.
+   */
+  public static final class Policy {
+    public static final int DEFAULT_MAX_FAILURES = 10;
+    public static final int DEFAULT_BATCH_SIZE   = 1024;
+
+    private final int          maxFailures;
+    private final int          batchSize;
+    private final ForkJoinPool pool;
+
+    private Policy(int maxFailures, int batchSize, ForkJoinPool pool) {
+      this.maxFailures = requireArgument(maxFailures, v -> v > 0);
+      this.batchSize = requireArgument(batchSize, v -> v > 0);
+      this.pool = requireNonNull(pool);
+    }
+
+    /**
+     * Returns a policy that stops a verification at the first failure found.
+     *
+     * @return A fail-fast policy.
+     */
+    public static Policy failFast() {
+      return collect(1);
+    }
+
+    /**
+     * Returns a policy that stops a verification once {@code maxFailures} failures
+     * are found. Since batches are examined in parallel, failures reported are
+     * not necessarily the first ones in the data set if it stopped early.
+     *
+     * @param maxFailures Maximum number of failures to be collected.
+     * @return A policy that collects failures.
+     */
+    public static Policy collect(int maxFailures) {
+      return new Policy(maxFailures, DEFAULT_BATCH_SIZE, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Returns a policy that never stops a verification.
+     *
+     * @return A policy that collects all the failures.
+     */
+    public static Policy collectAll() {
+      return collect(Integer.MAX_VALUE);
+    }
+
+    public static Policy defaultPolicy() {
+      return collect(DEFAULT_MAX_FAILURES);
+    }
+
+    public Policy withBatchSize(int batchSize) {
+      return new Policy(this.maxFailures, batchSize, this.pool);
+    }
+
+    public Policy withPool(ForkJoinPool pool) {
+      return new Policy(this.maxFailures, this.batchSize, pool);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  public static <T> BulkReport verify(Spliterator<? extends T> elements, Matcher<? super T> matcher, Policy policy) {
+    return new Verification<>((Spliterator<T>) requireNonNull(elements), (Matcher<T>) requireNonNull(matcher), requireNonNull(policy)).run();
+  }
+
+  private static class Verification<T> {
+    private final Spliterator<T>            elements;
+    private final CompiledMatcher<T>        matcher;
+    private final Policy                    policy;
+    private final Queue<Failure>            failures    = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger             numFailures = new AtomicInteger(0);
+    private final AtomicBoolean             stopped     = new AtomicBoolean(false);
+    private final Deque<ForkJoinTask<Long>> tasks       = new ArrayDeque<>();
+    private final int                       maxTasksInFlight;
+
+    Verification(Spliterator<T> elements, Matcher<T> matcher, Policy policy) {
+      this.elements = elements;
+      this.matcher = matcher.compile();
+      this.policy = policy;
+      this.maxTasksInFlight = policy.pool.getParallelism() * 2;
+    }
+
+    BulkReport run() {
+      long examined = 0;
+      long index = 0;
+      try {
+        while (!stopped.get()) {
+          Batch<T> batch = new Batch<>(index, policy.batchSize);
+          while (batch.size < policy.batchSize && elements.tryAdvance(batch))
+            ;
+          if (batch.size == 0)
+            break;
+          index += batch.size;
+          tasks.addLast(policy.pool.submit(() -> examine(batch)));
+          if (tasks.size() >= maxTasksInFlight)
+            examined += tasks.removeFirst().join();
+        }
+        while (!tasks.isEmpty())
+          examined += tasks.removeFirst().join();
+      } finally {
+        stopped.set(true);
+        tasks.forEach(each -> each.cancel(false));
+      }
+      return createReport(examined);
+    }
+
+    private long examine(Batch<T> batch) {
+      long ret = 0;
+      for (int i = 0; i < batch.size && !stopped.get(); i++, ret++) {
+        T each = batch.elements[i];
+        if (matcher.test(each))
+          continue;
+        Report report = Session.Mode.DIAGNOSTIC.perform(each, matcher.source());
+        if (report.isSuccessful())
+          continue;
+        long index = batch.base + i;
+        failures.add(new Failure() {
+          @Override
+          public long index() {
+            return index;
+          }
+
+          @Override
+          public Report report() {
+            return report;
+          }
+        });
+        if (numFailures.incrementAndGet() >= policy.maxFailures)
+          stopped.set(true);
+      }
+      return ret;
+    }
+
+    private BulkReport createReport(long examined) {
+      List<Failure> sorted = new ArrayList<>(failures);
+      sorted.sort(Comparator.comparingLong(Failure::index));
+      List<Failure> failures = Collections.unmodifiableList(sorted.subList(0, Math.min(sorted.size(), policy.maxFailures)));
+      MergedReport.Builder builder = new MergedReport.Builder();
+      for (Failure each : failures)
+        builder.add(Long.toString(each.index()), each.report());
+      if (!failures.isEmpty())
+        builder.summary("%s failure(s) found in %s element(s) examined", failures.size(), examined);
+      Report report = builder.build();
+      return new BulkReport() {
+        @Override
+        public List<Failure> failures() {
+          return failures;
+        }
+
+        @Override
+        public long examined() {
+          return examined;
+        }
+
+        @Override
+        public String expectation() {
+          return report.expectation();
+        }
+
+        @Override
+        public String mismatch() {
+          return report.mismatch();
+        }
+
+        @Override
+        public List<Throwable> exceptions() {
+          return report.exceptions();
+        }
+
+        @Override
+        public boolean isSuccessful() {
+          return report.isSuccessful();
+        }
+      };
+    }
+  }
+
+  private static class Batch<T> implements Consumer<T> {
+    final long base;
+    final T[]  elements;
+    int size;
+
+    @SuppressWarnings("unchecked")
+    Batch(long base, int capacity) {
+      this.base = base;
+      this.elements = (T[]) new Object[capacity];
+    }
+
+    @Override
+    public void accept(T t) {
+      this.elements[size++] = t;
+    }
+  }
+}
@@ -0,0 +1,61 @@
+package com.github.dakusui.crest.core;
+
+import java.util.Objects;
+
+import static java.lang.String.format;
+
+/**
+ * A frame that performs an assertion, identified by a class, a method, and a line
+ * number. Two frames at the same line are equal to each other, so that it can
+ * be used as a key of a map without rendering a string for each call.
+ *
+ * @see CallSites#frame()
+ */
+final class CallSite {
+  static final CallSite UNKNOWN = new CallSite("(unknown)", null, null, -1);
+  static final CallSite OTHERS  = new CallSite("(others)", null, null, -1);
+
+  private final String className;
+  private final String methodName;
+  private final String fileName;
+  private final int    lineNumber;
+
+  CallSite(String className, String methodName, String fileName, int lineNumber) {
+    this.className = className;
+    this.methodName = methodName;
+    this.fileName = fileName;
+    this.lineNumber = lineNumber;
+  }
+
+  @Override
+  public int hashCode() {
+    return (className.hashCode() * 31 + Objects.hashCode(methodName)) * 31 + lineNumber;
+  }
+
+  @Override
+  public boolean equals(Object anotherObject) {
+    if (this == anotherObject)
+      return true;
+    if (!(anotherObject instanceof CallSite))
+      return false;
+    CallSite another = (CallSite) anotherObject;
+    return this.lineNumber == another.lineNumber
+        && this.className.equals(another.className)
+        && Objects.equals(this.methodName, another.methodName);
+  }
+
+  /**
+   * Returns a string in the same format as {@link StackTraceElement#toString()},
+   * e.g., {@code com.example.OrderService.place(OrderService.java:42)}.
+   */
+  @Override
+  public String toString() {
+    if (methodName == null)
+      return className;
+    if (fileName == null)
+      return format("%s.%s(Unknown Source)", className, methodName);
+    if (lineNumber < 0)
+      return format("%s.%s(%s)", className, methodName, fileName);
+    return format("%s.%s(%s:%s)", className, methodName, fileName, lineNumber);
+  }
+}
@@ -0,0 +1,232 @@
+package com.github.dakusui.crest.core;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.InstanceNotFoundException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.github.dakusui.crest.utils.InternalUtils.requireArgument;
+import static com.github.dakusui.crest.utils.InternalUtils.rethrow;
+import static java.lang.String.format;
+
+/**
+ * Aggregates the number of evaluations, the number of failures, and latencies
+ * of assertions for each call site.
+ * <p>
+ * A call site is identified by the innermost stack frame outside this library,
+ * i.e., its class, method, and line number, whether a message is given to the
+ * assertion or not. The frame is used as a key as it is, and it is rendered into
+ * a string once, when it is seen for the first time. Up to {@value #MAX_CALL_SITES}
+ * call sites are tracked by default, and ones seen after that are aggregated
+ * into one named {@code (others)}.
+ * <p>
+ * The statistics shared in this JVM are enabled by {@link #enable()} or a system
+ * property {@code thincrest.statistics}, which also registers them as an MXBean
+ * named {@value #OBJECT_NAME}. Counters are striped, and recording never takes
+ * a lock once a call site has been seen.
+ *
+ * @see CallSites
+ */
+public class CallSiteStatistics implements SessionListener, CallSiteStatisticsMXBean {
+  public static final String OBJECT_NAME    = "com.github.dakusui.thincrest:type=CallSiteStatistics";
+  /**
+   * The maximum number of call sites tracked individually by default.
+   */
+  public static final int    MAX_CALL_SITES = 1024;
+
+  private static final CallSiteStatistics GLOBAL  = new CallSiteStatistics();
+  private static final AtomicBoolean      ENABLED = new AtomicBoolean(false);
+
+  /**
+   * Statistics of a call site at a certain moment.
+   */
+  public static final class Snapshot {
+    private final String callSite;
+    private final long   evaluations;
+    private final long   failures;
+    private final long   meanNanos;
+    private final long   p50Nanos;
+    private final long   p99Nanos;
+    private final long   maxNanos;
+
+    Snapshot(String callSite, long evaluations, long failures, SessionStatistics.Histogram latencies) {
+      this.callSite = callSite;
+      this.evaluations = evaluations;
+      this.failures = failures;
+      this.meanNanos = latencies.meanNanos();
+      this.p50Nanos = latencies.percentileNanos(50);
+      this.p99Nanos = latencies.percentileNanos(99);
+      this.maxNanos = latencies.maxNanos();
+    }
+
+    public String getCallSite() {
+      return callSite;
+    }
+
+    public long getEvaluations() {
+      return evaluations;
+    }
+
+    public long getFailures() {
+      return failures;
+    }
+
+    public long getMeanNanos() {
+      return meanNanos;
+    }
+
+    public long getP50Nanos() {
+      return p50Nanos;
+    }
+
+    public long getP99Nanos() {
+      return p99Nanos;
+    }
+
+    public long getMaxNanos() {
+      return maxNanos;
+    }
+
+    @Override
+    public String toString() {
+      return format("%s: evaluations=%s, failures=%s, mean=%sns, p50=%sns, p99=%sns, max=%sns",
+          callSite, evaluations, failures, meanNanos, p50Nanos, p99Nanos, maxNanos);
+    }
+  }
+
+  private static class Site {
+    final String                      name;
+    final LongAdder                   evaluations = new LongAdder();
+    final LongAdder                   failures    = new LongAdder();
+    final SessionStatistics.Histogram latencies   = new SessionStatistics.Histogram();
+
+    Site(String name) {
+      this.name = name;
+    }
+  }
+
+  private final Map<CallSite, Site> sites = new ConcurrentHashMap<>();
+  private final int                 maxCallSites;
+
+  public CallSiteStatistics() {
+    this(MAX_CALL_SITES);
+  }
+
+  /**
+   * Creates statistics that track up to {@code maxCallSites} call sites individually.
+   *
+   * @param maxCallSites The maximum number of call sites.
+   */
+  public CallSiteStatistics(int maxCallSites) {
+    this.maxCallSites = requireArgument(maxCallSites, v -> v > 0);
+  }
+
+  /**
+   * Returns the statistics shared in this JVM. They are recorded only while
+   * they are enabled.
+   *
+   * @return The global statistics.
+   */
+  public static CallSiteStatistics global() {
+    return GLOBAL;
+  }
+
+  /**
+   * Installs the global statistics as a {@link SessionListener} and registers
+   * them to the platform MBean server. Calling this method twice has no effect.
+   */
+  public static void enable() {
+    if (!ENABLED.compareAndSet(false, true))
+      return;
+    SessionListener.install(GLOBAL);
+    try {
+      ManagementFactory.getPlatformMBeanServer().registerMBean(GLOBAL, new ObjectName(OBJECT_NAME));
+    } catch (InstanceAlreadyExistsException e) {
+      // Registered by another copy of this library in the same JVM.
+    } catch (JMException e) {
+      throw rethrow(e);
+    }
+  }
+
+  public static void disable() {
+    if (!ENABLED.compareAndSet(true, false))
+      return;
+    SessionListener.uninstall(GLOBAL);
+    try {
+      MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+      server.unregisterMBean(new ObjectName(OBJECT_NAME));
+    } catch (InstanceNotFoundException e) {
+      // Registered by another copy of this library and already unregistered.
+    } catch (JMException e) {
+      throw rethrow(e);
+    }
+  }
+
+  static void installIfRequested() {
+    if (Boolean.getBoolean("thincrest.statistics"))
+      enable();
+  }
+
+  @Override
+  public void assertionFinished(String message, Object value, Matcher<?> matcher, boolean passed, long elapsedNanos) {
+    Site site = siteOf(CallSites.frame());
+    site.evaluations.increment();
+    if (!passed)
+      site.failures.increment();
+    site.latencies.record(elapsedNanos);
+  }
+
+  /**
+   * Returns statistics of all the call sites seen so far, in descending order
+   * of the number of evaluations.
+   *
+   * @return Snapshots of the call sites.
+   */
+  public List<Snapshot> snapshot() {
+    List<Snapshot> ret = new ArrayList<>(sites.size());
+    sites.forEach((callSite, site) -> ret.add(new Snapshot(site.name, site.evaluations.sum(), site.failures.sum(), site.latencies)));
+    ret.sort(Comparator.comparingLong(Snapshot::getEvaluations).reversed());
+    return Collections.unmodifiableList(ret);
+  }
+
+  @Override
+  public List<Snapshot> getCallSites() {
+    return snapshot();
+  }
+
+  @Override
+  public long getEvaluations() {
+    return sites.values().stream().mapToLong(each -> each.evaluations.sum()).sum();
+  }
+
+  @Override
+  public long getFailures() {
+    return sites.values().stream().mapToLong(each -> each.failures.sum()).sum();
+  }
+
+  /**
+   * Discards all the call sites seen so far.
+   */
+  @Override
+  public void reset() {
+    sites.clear();
+  }
+
+  private Site siteOf(CallSite callSite) {
+    Site ret = sites.get(callSite);
+    if (ret != null)
+      return ret;
+    // Checked without a lock, the cap can be exceeded by a few concurrent threads.
+    return sites.computeIfAbsent(sites.size() < maxCallSites ? callSite : CallSite.OTHERS, k -> new Site(k.toString()));
+  }
+}
@@ -0,0 +1,17 @@
+package com.github.dakusui.crest.core;
+
+import java.util.List;
+
+/**
+ * A management interface of {@link CallSiteStatistics}, registered as
+ * {@value CallSiteStatistics#OBJECT_NAME}.
+ */
+public interface CallSiteStatisticsMXBean {
+  List<CallSiteStatistics.Snapshot> getCallSites();
+
+  long getEvaluations();
+
+  long getFailures();
+
+  void reset();
+}
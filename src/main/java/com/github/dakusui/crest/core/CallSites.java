@@ -0,0 +1,54 @@
+package com.github.dakusui.crest.core;
+
+/**
+ * Identifies the code that performs an assertion, i.e., the innermost frame of
+ * the current stack outside this library and the JDK.
+ * <p>
+ * This is the version for Java 8, which takes a whole stack trace. The one for
+ * Java 11 and later, found under {@code META-INF/versions/11}, walks only the
+ * frames it needs with a shared {@code StackWalker}.
+ */
+public enum CallSites {
+  ;
+
+  private static final String[] INTERNAL_PREFIXES = {
+      "com.github.dakusui.crest.Crest",
+      "com.github.dakusui.crest.core.",
+      "com.github.dakusui.crest.matcherbuilders.",
+      "com.github.dakusui.crest.utils.",
+      "com.github.dakusui.thincrest_pcond.",
+      "java.",
+      "jdk.",
+      "sun.",
+  };
+
+  /**
+   * Returns a string that identifies the caller of this library, e.g.,
+   * {@code com.example.OrderService.place(OrderService.java:42)}.
+   *
+   * @return A string that identifies the call site.
+   */
+  public static String caller() {
+    return frame().toString();
+  }
+
+  /**
+   * Returns the innermost frame outside this library as a key that can be compared
+   * without rendering it into a string.
+   *
+   * @return The frame of the call site.
+   */
+  static CallSite frame() {
+    for (StackTraceElement each : new Throwable().getStackTrace())
+      if (!isInternal(each.getClassName()))
+        return new CallSite(each.getClassName(), each.getMethodName(), each.getFileName(), each.getLineNumber());
+    return CallSite.UNKNOWN;
+  }
+
+  static boolean isInternal(String className) {
+    for (String each : INTERNAL_PREFIXES)
+      if (className.startsWith(each))
+        return true;
+    return false;
+  }
+}
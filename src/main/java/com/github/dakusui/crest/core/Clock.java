@@ -0,0 +1,26 @@
+package com.github.dakusui.crest.core;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A source of time used by {@link Eventually} to wait between attempts and by
+ * {@link SampledCheck} to limit the rate of reports. Tests can replace it with
+ * a virtual one to run without really sleeping.
+ */
+public interface Clock {
+  Clock SYSTEM = new Clock() {
+    @Override
+    public long nanoTime() {
+      return System.nanoTime();
+    }
+
+    @Override
+    public void sleep(long nanos) throws InterruptedException {
+      TimeUnit.NANOSECONDS.sleep(nanos);
+    }
+  };
+
+  long nanoTime();
+
+  void sleep(long nanos) throws InterruptedException;
+}
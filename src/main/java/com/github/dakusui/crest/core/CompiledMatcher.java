@@ -0,0 +1,281 @@
+package com.github.dakusui.crest.core;
+
+import com.github.dakusui.thincrest_pcond.functions.TransformingPredicate;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import static com.github.dakusui.crest.utils.InternalUtils.throwIfBlacklisted;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A matcher whose tree is flattened into an immutable program, which is a sequence
+ * of function, predicate, and boolean operations. The program is run by a small
+ * interpreter that does not allocate anything by itself, which makes a compiled
+ * matcher suitable for one built once and applied to a large number of values.
+ * <p>
+ * A value is first examined by the program. Only when it does not pass, the
+ * matcher from which this object is compiled is evaluated with a given session,
+ * so that the failure can be explained. That is, functions and predicates in
+ * a compiled matcher are evaluated twice for a failing value.
+ *
+ * @param <T> The type of the value to be examined.
+ * @see Matcher#compile()
+ */
+public interface CompiledMatcher<T> extends Matcher<T> {
+  /**
+   * Examines a given value with the compiled program.
+   *
+   * @param value A value to be examined.
+   * @return {@code true} if and only if {@code value} passes the matcher without
+   * any exception.
+   */
+  @Override
+  boolean test(T value);
+
+  /**
+   * Returns a matcher from which this object is compiled.
+   *
+   * @return The matcher from which this object is compiled.
+   */
+  Matcher<T> source();
+
+  @Override
+  default boolean matches(T value, Session<T> session, List<Throwable> exceptions) {
+    return test(value) || source().matches(value, session, exceptions);
+  }
+
+  @Override
+  default void describeExpectation(Session<T> session) {
+    source().describeExpectation(session);
+  }
+
+  @Override
+  default void describeMismatch(T value, Session<T> session) {
+    source().describeMismatch(value, session);
+  }
+
+  @Override
+  default CompiledMatcher<T> compile() {
+    return this;
+  }
+
+  static <T> CompiledMatcher<T> compile(Matcher<T> matcher) {
+    return new Impl<>(matcher);
+  }
+
+  class Impl<T> implements CompiledMatcher<T> {
+    /*
+     * Instructions. The interpreter has three registers, which are a value being
+     * transformed ('reg'), a boolean result of the last operation ('acc'), and
+     * a stack of booleans held by bits of a long ('stack').
+     * Lower 8 bits of an instruction hold an opcode and the rest holds its argument.
+     */
+    static final int LOAD    = 0; // reg = value
+    static final int APPLY   = 1; // reg = operand.apply(reg)
+    static final int TEST    = 2; // acc = operand.test(reg)
+    static final int MATCH   = 3; // acc = operand.matches(value)
+    static final int PUSH    = 4; // push argument
+    static final int COMBINE = 5; // top = bit (top * 2 + acc) of argument
+    static final int POP     = 6; // acc = pop
+    static final int SKIP    = 7; // go to (argument >> 2) if bit top of argument is set
+    static final int FAIL    = 8; // return false if top is not set
+
+    private static final int MAX_STACK_DEPTH = Long.SIZE;
+
+    private final Matcher<T>                 source;
+    private final int[]                      instructions;
+    private final Object[]                   operands;
+    /*
+     * Operands of APPLY and TEST held by arrays of their own types, so that the
+     * interpreter does not cast them on each instruction.
+     */
+    private final Function<Object, Object>[] functions;
+    private final Predicate<Object>[]        predicates;
+
+    @SuppressWarnings("unchecked")
+    Impl(Matcher<T> source) {
+      this.source = requireNonNull(source);
+      Compiler compiler = new Compiler();
+      compiler.compile(source, 0, true);
+      this.instructions = compiler.instructions.stream().mapToInt(i -> i).toArray();
+      this.operands = compiler.operands.toArray();
+      this.functions = new Function[operands.length];
+      this.predicates = new Predicate[operands.length];
+      for (int i = 0; i < operands.length; i++) {
+        if ((instructions[i] & 0xff) == APPLY)
+          this.functions[i] = (Function<Object, Object>) operands[i];
+        else if ((instructions[i] & 0xff) == TEST)
+          this.predicates[i] = (Predicate<Object>) operands[i];
+      }
+    }
+
+    @Override
+    public Matcher<T> source() {
+      return this.source;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public boolean test(T value) {
+      Object reg = null;
+      boolean acc = false;
+      long stack = 0;
+      try {
+        for (int i = 0; i < instructions.length; i++) {
+          int argument = instructions[i] >>> 8;
+          switch (instructions[i] & 0xff) {
+          case LOAD:
+            reg = value;
+            break;
+          case APPLY:
+            reg = functions[i].apply(reg);
+            break;
+          case TEST:
+            acc = predicates[i].test(reg);
+            break;
+          case MATCH:
+            List<Throwable> exceptions = new LinkedList<>();
+            acc = ((Matcher<T>) operands[i]).matches(value, Session.lightweight(), exceptions);
+            if (!exceptions.isEmpty())
+              return false;
+            break;
+          case PUSH:
+            stack = (stack << 1) | argument;
+            break;
+          case COMBINE:
+            stack = (stack & ~1L) | ((argument >> ((int) (stack & 1) * 2 + (acc ? 1 : 0))) & 1);
+            break;
+          case POP:
+            acc = (stack & 1) != 0;
+            stack >>>= 1;
+            break;
+          case SKIP:
+            if (((argument >> (int) (stack & 1)) & 1) != 0)
+              i = (argument >> 2) - 1;
+            break;
+          case FAIL:
+            if ((stack & 1) == 0)
+              return false;
+            break;
+          default:
+            throw new IllegalStateException();
+          }
+        }
+      } catch (Throwable e) {
+        // Any exception makes the entire matcher fail, just like Matcher.Composite.Base does.
+        throwIfBlacklisted(e);
+        return false;
+      }
+      return acc;
+    }
+
+    private static class Compiler {
+      final List<Integer> instructions = new ArrayList<>();
+      final List<Object>  operands     = new ArrayList<>();
+      /*
+       * A function whose output 'reg' is known to hold at the current position of
+       * the program. Leaves built by one matcher builder share one function, and
+       * its output is reused by them just like a session memoizes it.
+       */
+      Function<?, ?> loaded;
+
+      /*
+       * 'fatal' is true if the entire matcher fails whenever 'matcher' fails,
+       * e.g., 'matcher' is a child of 'and' at the root. Since any exception makes
+       * the entire matcher fail, too, the rest of the program does not need to be
+       * run once such a matcher fails, whichever strategy its ancestors have.
+       */
+      void compile(Matcher<?> matcher, int depth, boolean fatal) {
+        if (matcher instanceof CompiledMatcher)
+          compile(((CompiledMatcher<?>) matcher).source(), depth, fatal);
+        else if (matcher instanceof Matcher.Leaf) {
+          Matcher.Leaf<?> leaf = (Matcher.Leaf<?>) matcher;
+          if (leaf.func() != this.loaded) {
+            emit(LOAD, null);
+            compileFunction(leaf.func());
+            this.loaded = leaf.func();
+          }
+          compilePredicate(leaf.p());
+        } else if (matcher instanceof Matcher.Composite.Base && depth < MAX_STACK_DEPTH && ((Matcher.Composite.Base<?>) matcher).strategy() != Matcher.Composite.Strategy.PARALLEL)
+          compileComposite((Matcher.Composite.Base<?>) matcher, depth, fatal);
+        else
+          emit(MATCH, matcher);
+      }
+
+      <T> void compileComposite(Matcher.Composite.Base<T> composite, int depth, boolean fatal) {
+        emit(PUSH, composite.first() ? 1 : 0, null);
+        int truthTable = truthTableOf(composite);
+        // A child is fatal if its failure makes this composite fail regardless of the current result.
+        boolean fatalChildren = fatal && (truthTable & 0b0101) == 0;
+        List<Integer> skips = new ArrayList<>();
+        for (Matcher<T> each : composite.children()) {
+          compile(each, depth + 1, fatalChildren);
+          emit(COMBINE, truthTable, null);
+          if (fatalChildren)
+            emit(FAIL, null);
+          if (composite.strategy() == Matcher.Composite.Strategy.SHORT_CIRCUIT) {
+            skips.add(this.instructions.size());
+            emit(SKIP, determinedValuesOf(composite), null);
+          }
+        }
+        for (int each : skips)
+          this.instructions.set(each, this.instructions.get(each) | (this.instructions.size() << 10));
+        emit(POP, null);
+      }
+
+      void compileFunction(Function<?, ?> function) {
+        if (function instanceof ChainedFunction) {
+          ChainedFunction<?, ?> chained = (ChainedFunction<?, ?>) function;
+          if (chained.previous() != null)
+            compileFunction(chained.previous());
+          emit(APPLY, chained.chained());
+        } else
+          emit(APPLY, function);
+      }
+
+      void compilePredicate(Predicate<?> predicate) {
+        if (predicate instanceof TransformingPredicate) {
+          TransformingPredicate<?, ?> transforming = (TransformingPredicate<?, ?>) predicate;
+          compileFunction(transforming.function());
+          compilePredicate(transforming.predicate());
+        } else
+          emit(TEST, predicate);
+      }
+
+      void emit(int opcode, Object operand) {
+        emit(opcode, 0, operand);
+      }
+
+      void emit(int opcode, int argument, Object operand) {
+        // POP can be a target of SKIP, where 'reg' may hold an output of any child.
+        if (opcode == APPLY || opcode == POP)
+          this.loaded = null;
+        this.instructions.add(opcode | (argument << 8));
+        this.operands.add(operand);
+      }
+
+      /*
+       * Bit (current * 2 + next) of the returned value holds op(current, next).
+       */
+      static int truthTableOf(Matcher.Composite.Base<?> composite) {
+        int ret = 0;
+        for (int i = 0; i < 4; i++)
+          if (composite.op((i & 2) != 0, (i & 1) != 0))
+            ret |= 1 << i;
+        return ret;
+      }
+
+      /*
+       * Bit (current) of the returned value is set if no more children can change
+       * the result once it becomes current.
+       */
+      static int determinedValuesOf(Matcher.Composite.Base<?> composite) {
+        return (composite.isDetermined(false) ? 1 : 0) | (composite.isDetermined(true) ? 2 : 0);
+      }
+    }
+  }
+}
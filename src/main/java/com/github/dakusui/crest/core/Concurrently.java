@@ -0,0 +1,160 @@
+package com.github.dakusui.crest.core;
+
+import org.opentest4j.AssertionFailedError;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.github.dakusui.crest.utils.InternalUtils.rethrow;
+import static com.github.dakusui.crest.utils.InternalUtils.throwIfBlacklisted;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Runs independent blocks of assertions at once and reports all of their failures
+ * in the order of the blocks.
+ * <p>
+ * Each block runs on a virtual thread if the running JDK supports them. Otherwise,
+ * blocks are run on a pool of at most {@link #MAX_PLATFORM_THREADS} daemon threads,
+ * which is created for each call and shut down after it. Since blocks are run
+ * at once, they must not depend on each other.
+ */
+public enum Concurrently {
+  ;
+
+  public static final int MAX_PLATFORM_THREADS = Integer.getInteger(
+      "thincrest.concurrently.maxThreads",
+      Math.max(4, Runtime.getRuntime().availableProcessors() * 4)
+  );
+
+  private static final Method NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR = virtualThreadPerTaskExecutorFactory();
+
+  /**
+   * Returns {@code true} if blocks are run on virtual threads in this JVM.
+   *
+   * @return {@code true} if virtual threads are available.
+   */
+  public static boolean virtualThreadsAvailable() {
+    return NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR != null;
+  }
+
+  /**
+   * Runs {@code blocks} concurrently and waits for all of them to finish.
+   * The returned report holds exceptions thrown by the blocks in the order of
+   * the blocks, and each entry of its expectation and mismatch is labeled with
+   * the index of a failing block.
+   *
+   * @param blocks Blocks to be run.
+   * @return A report of the blocks.
+   */
+  public static Report run(Executable... blocks) {
+    List<Throwable> results = new ArrayList<>(Collections.nCopies(blocks.length, null));
+    ExecutorService executor = newExecutor(blocks.length);
+    try {
+      List<Future<Throwable>> futures = new ArrayList<>(blocks.length);
+      for (Executable each : blocks) {
+        requireNonNull(each);
+        futures.add(executor.submit(() -> execute(each)));
+      }
+      for (int i = 0; i < futures.size(); i++)
+        results.set(i, await(futures.get(i)));
+    } finally {
+      executor.shutdownNow();
+    }
+    MergedReport.Builder builder = new MergedReport.Builder();
+    for (int i = 0; i < results.size(); i++) {
+      Throwable each = results.get(i);
+      if (each == null)
+        continue;
+      throwIfBlacklisted(each);
+      builder.add(Integer.toString(i), reportOf(each));
+    }
+    return builder.build();
+  }
+
+  private static Throwable execute(Executable block) {
+    try {
+      block.execute();
+      return null;
+    } catch (Throwable e) {
+      return e;
+    }
+  }
+
+  private static Throwable await(Future<Throwable> future) {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw rethrow(e);
+    } catch (ExecutionException e) {
+      // Not reached since execute catches everything.
+      throw rethrow(e.getCause());
+    }
+  }
+
+  private static Report reportOf(Throwable exception) {
+    String expectation = "no exception";
+    String mismatch = exception.toString();
+    if (exception instanceof AssertionFailedError) {
+      AssertionFailedError e = (AssertionFailedError) exception;
+      if (e.isExpectedDefined())
+        expectation = String.valueOf(e.getExpected().getValue());
+      if (e.isActualDefined())
+        mismatch = String.valueOf(e.getActual().getValue());
+    }
+    String finalExpectation = expectation;
+    String finalMismatch = mismatch;
+    return new Report() {
+      @Override
+      public String expectation() {
+        return finalExpectation;
+      }
+
+      @Override
+      public String mismatch() {
+        return finalMismatch;
+      }
+
+      @Override
+      public List<Throwable> exceptions() {
+        return Collections.singletonList(exception);
+      }
+
+      @Override
+      public boolean isSuccessful() {
+        return false;
+      }
+    };
+  }
+
+  private static ExecutorService newExecutor(int numBlocks) {
+    if (NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR != null) {
+      try {
+        return (ExecutorService) NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR.invoke(null);
+      } catch (ReflectiveOperationException e) {
+        throw rethrow(e);
+      }
+    }
+    return Executors.newFixedThreadPool(Math.max(1, Math.min(numBlocks, MAX_PLATFORM_THREADS)), runnable -> {
+      Thread ret = new Thread(runnable, "thincrest-concurrently");
+      ret.setDaemon(true);
+      return ret;
+    });
+  }
+
+  private static Method virtualThreadPerTaskExecutorFactory() {
+    if (Boolean.getBoolean("thincrest.concurrently.platformThreads"))
+      return null;
+    try {
+      return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+    } catch (NoSuchMethodException e) {
+      return null;
+    }
+  }
+}
@@ -0,0 +1,13 @@
+package com.github.dakusui.crest.core;
+
+/**
+ * Recorded in a report when evaluation of a leaf matcher is given up because
+ * it did not finish in time.
+ *
+ * @see Session#timed(java.time.Duration, java.time.Duration)
+ */
+public class EvaluationTimeoutException extends RuntimeException {
+  public EvaluationTimeoutException(String message) {
+    super(message);
+  }
+}
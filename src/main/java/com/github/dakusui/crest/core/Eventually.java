@@ -0,0 +1,192 @@
+package com.github.dakusui.crest.core;
+
+import java.time.Duration;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static com.github.dakusui.crest.utils.InternalUtils.requireArgument;
+import static com.github.dakusui.crest.utils.InternalUtils.rethrow;
+import static com.github.dakusui.crest.utils.InternalUtils.throwIfBlacklisted;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Polls a value until it satisfies a matcher or a timeout elapses.
+ * <p>
+ * Each value is examined only by a matcher compiled from the given one, which
+ * neither builds a report nor creates an exception. A full report is composed
+ * only when the timeout elapses, for the value that failed the last attempt.
+ * The supplier is not called again for it.
+ * <p>
+ * An exception thrown by a supplier on an intermediate attempt is treated as
+ * a failure of the attempt. The one thrown on the last attempt is propagated.
+ *
+ * @see Matcher#compile()
+ * @see Policy
+ */
+public enum Eventually {
+  ;
+
+  /**
+   * Specifies intervals between attempts. An interval starts from {@code initialInterval}
+   * and is multiplied by {@code multiplier} after every attempt until it reaches
+   * {@code maxInterval}. Each actual wait is randomized by up to {@code jitter}
+   * of the interval in either direction, so that pollers started at the same
+   * time do not stay synchronized.
+   * <p>
+   * {@code initialInterval} must be positive. A policy that does not wait at all
+   * would keep a thread busy until the timeout elapses.
+   */
+  public static final class Policy {
+    public static final Duration DEFAULT_INITIAL_INTERVAL = Duration.ofMillis(10);
+    public static final double   DEFAULT_MULTIPLIER       = 2.0;
+    public static final Duration DEFAULT_MAX_INTERVAL     = Duration.ofSeconds(1);
+    public static final double   DEFAULT_JITTER           = 0.1;
+
+    private final long   initialInterval;
+    private final double multiplier;
+    private final long   maxInterval;
+    private final double jitter;
+    private final Clock  clock;
+    private final Random random;
+
+    private Policy(long initialInterval, double multiplier, long maxInterval, double jitter, Clock clock, Random random) {
+      this.initialInterval = requireArgument(initialInterval, v -> v > 0);
+      this.multiplier = requireArgument(multiplier, v -> v >= 1.0);
+      this.maxInterval = requireArgument(maxInterval, v -> v >= initialInterval);
+      this.jitter = requireArgument(jitter, v -> v >= 0.0 && v <= 1.0);
+      this.clock = requireNonNull(clock);
+      this.random = random;
+    }
+
+    public static Policy defaultPolicy() {
+      return exponential(DEFAULT_INITIAL_INTERVAL, DEFAULT_MULTIPLIER, DEFAULT_MAX_INTERVAL);
+    }
+
+    /**
+     * Returns a policy that waits for {@code interval} between attempts, without
+     * jitter.
+     *
+     * @param interval A positive interval between attempts.
+     * @return A policy with a fixed interval.
+     */
+    public static Policy fixed(Duration interval) {
+      return exponential(interval, 1.0, interval).withJitter(0.0);
+    }
+
+    public static Policy exponential(Duration initialInterval, double multiplier, Duration maxInterval) {
+      return new Policy(initialInterval.toNanos(), multiplier, maxInterval.toNanos(), DEFAULT_JITTER, Clock.SYSTEM, null);
+    }
+
+    public Policy withJitter(double jitter) {
+      return new Policy(this.initialInterval, this.multiplier, this.maxInterval, jitter, this.clock, this.random);
+    }
+
+    public Policy withClock(Clock clock) {
+      return new Policy(this.initialInterval, this.multiplier, this.maxInterval, this.jitter, clock, this.random);
+    }
+
+    /**
+     * Returns a policy that draws jitters from {@code random} instead of {@code ThreadLocalRandom}.
+     * A policy given a {@code Random} must not be used by multiple threads at once.
+     *
+     * @param random A source of jitters.
+     * @return A policy that uses {@code random}.
+     */
+    public Policy withRandom(Random random) {
+      return new Policy(this.initialInterval, this.multiplier, this.maxInterval, this.jitter, this.clock, requireNonNull(random));
+    }
+
+    long nextInterval(long current) {
+      return (long) Math.min(current * multiplier, maxInterval);
+    }
+
+    long jittered(long interval) {
+      if (jitter == 0.0 || interval == 0)
+        return interval;
+      double r = (random != null ? random : ThreadLocalRandom.current()).nextDouble() * 2 - 1;
+      return Math.max(0, interval + (long) (interval * jitter * r));
+    }
+  }
+
+  /**
+   * Polls {@code supplier} until a value it gives satisfies {@code matcher} or
+   * {@code timeout} elapses, and returns a report of the last attempt.
+   *
+   * @param supplier A supplier of values to be examined.
+   * @param matcher  A matcher to examine the values.
+   * @param timeout  A time limit of the polling.
+   * @param policy   A policy that decides intervals between attempts.
+   * @param <T>      The type of the values.
+   * @return {@link Report#SUCCESS} if a value satisfies {@code matcher}, or a
+   * report of the last value otherwise.
+   */
+  @SuppressWarnings("unchecked")
+  public static <T> Report await(Supplier<? extends T> supplier, Matcher<? super T> matcher, Duration timeout, Policy policy) {
+    return new Polling<>((Supplier<T>) requireNonNull(supplier), (Matcher<T>) requireNonNull(matcher), timeout.toNanos(), requireNonNull(policy)).run();
+  }
+
+  private static class Polling<T> {
+    private final Supplier<T>        supplier;
+    private final Matcher<T>         matcher;
+    private final CompiledMatcher<T> compiled;
+    private final long               timeout;
+    private final Policy             policy;
+
+    Polling(Supplier<T> supplier, Matcher<T> matcher, long timeout, Policy policy) {
+      this.supplier = supplier;
+      this.matcher = matcher;
+      this.compiled = matcher.compile();
+      this.timeout = requireArgument(timeout, v -> v >= 0);
+      this.policy = policy;
+    }
+
+    Report run() {
+      Clock clock = policy.clock;
+      long start = clock.nanoTime();
+      long interval = policy.initialInterval;
+      int attempts = 0;
+      while (true) {
+        attempts++;
+        T value = null;
+        Throwable failure = null;
+        try {
+          value = supplier.get();
+        } catch (Throwable e) {
+          throwIfBlacklisted(e);
+          failure = e;
+        }
+        try {
+          if (failure == null && compiled.test(value))
+            return Report.SUCCESS;
+        } catch (Throwable e) {
+          throwIfBlacklisted(e);
+        }
+        long elapsed = clock.nanoTime() - start;
+        long remaining = timeout - elapsed;
+        if (remaining <= 0 || Thread.currentThread().isInterrupted()) {
+          if (failure != null)
+            throw rethrow(failure);
+          return explain(value, attempts, elapsed);
+        }
+        try {
+          clock.sleep(Math.min(policy.jittered(interval), remaining));
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        interval = policy.nextInterval(interval);
+      }
+    }
+
+    private Report explain(T value, int attempts, long elapsed) {
+      Report report = Session.perform(value, matcher, Session.create());
+      if (report.isSuccessful())
+        return report;
+      return new MergedReport.Builder()
+          .add(Integer.toString(attempts), report)
+          .summary("not satisfied after %s attempt(s) in %sms", attempts, TimeUnit.NANOSECONDS.toMillis(elapsed))
+          .build();
+    }
+  }
+}
@@ -0,0 +1,44 @@
+package com.github.dakusui.crest.core;
+
+/**
+ * Emits Java Flight Recorder events for assertions, functions, predicates, report
+ * rendering, and reflective method resolution, so that a recording tells time
+ * spent in this library apart from the one spent in the code under test.
+ * <p>
+ * Events are emitted only when a system property {@code thincrest.jfr} is {@code true}
+ * and the JVM is Java 11 or later. The library is a multi-release jar, and this
+ * class is the one for Java 8, which does nothing. The one for Java 11 and later
+ * is found under {@code META-INF/versions/11}. When the property is not set, no
+ * listener is installed and {@link #ENABLED} is {@code false}, so that neither
+ * assertions nor method resolution pay for it.
+ * <p>
+ * Even when the property is set, events are disabled in a recording by default.
+ * Enable the ones under the category {@code thincrest}, e.g., by a {@code .jfc}
+ * file or {@code Recording#enable}.
+ *
+ * @see SessionListener
+ */
+public enum FlightRecording {
+  ;
+
+  /*
+   * Not a compile-time constant on purpose. Otherwise, it would be inlined into
+   * callers, which then would not see the value of the class for Java 11.
+   */
+  public static final boolean ENABLED = Boolean.parseBoolean("false");
+
+  /**
+   * Returns {@code true} if events are emitted in this JVM.
+   *
+   * @return {@code true} if flight recording is available and enabled.
+   */
+  public static boolean enabled() {
+    return ENABLED;
+  }
+
+  static void install() {
+  }
+
+  public static void methodResolved(Class<?> declaringClass, String methodName, long elapsedNanos) {
+  }
+}
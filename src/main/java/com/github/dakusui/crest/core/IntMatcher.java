@@ -0,0 +1,104 @@
+package com.github.dakusui.crest.core;
+
+import com.github.dakusui.thincrest_pcond.functions.Functions;
+import com.github.dakusui.thincrest_pcond.functions.Predicates;
+
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A matcher for an {@code int} value, which examines it without boxing. A matcher
+ * for boxed values equivalent to it is used only to explain a failure.
+ * <p>
+ * Matchers built by the factory methods of this interface do not allocate
+ * anything to examine a value.
+ *
+ * @see com.github.dakusui.crest.Crest#requireThat(String, int, IntMatcher)
+ */
+public interface IntMatcher {
+  boolean test(int value);
+
+  /**
+   * Returns a matcher for boxed values that is satisfied by the same values as
+   * this object is.
+   *
+   * @return A matcher for boxed values.
+   */
+  Matcher<Integer> boxed();
+
+  default IntMatcher and(IntMatcher another) {
+    requireNonNull(another);
+    return create(
+        v -> this.test(v) && another.test(v),
+        Matcher.Conjunctive.create(Arrays.asList(this.boxed(), another.boxed()))
+    );
+  }
+
+  static IntMatcher gt(int value) {
+    return create(v -> v > value, Predicates.gt(value));
+  }
+
+  static IntMatcher ge(int value) {
+    return create(v -> v >= value, Predicates.ge(value));
+  }
+
+  static IntMatcher lt(int value) {
+    return create(v -> v < value, Predicates.lt(value));
+  }
+
+  static IntMatcher le(int value) {
+    return create(v -> v <= value, Predicates.le(value));
+  }
+
+  static IntMatcher eq(int value) {
+    return create(v -> v == value, Predicates.eq(value));
+  }
+
+  /**
+   * Returns a matcher that is satisfied when a value is within a range from
+   * {@code from} (inclusive) to {@code to} (exclusive).
+   *
+   * @param from The lower bound (inclusive).
+   * @param to   The upper bound (exclusive).
+   * @return A matcher.
+   */
+  static IntMatcher range(int from, int to) {
+    return ge(from).and(lt(to));
+  }
+
+  /**
+   * Creates a matcher from a matcher for boxed values. The returned one boxes
+   * a value to examine it, which may allocate an object.
+   *
+   * @param matcher A matcher for boxed values.
+   * @return A matcher.
+   */
+  @SuppressWarnings("unchecked")
+  static IntMatcher from(Matcher<? super Integer> matcher) {
+    CompiledMatcher<Integer> compiled = ((Matcher<Integer>) matcher).compile();
+    return create(compiled::test, compiled.source());
+  }
+
+  static IntMatcher create(IntPredicate predicate, Predicate<? super Integer> explanation) {
+    return create(predicate, Matcher.Leaf.create(explanation, TrivialFunction.create(Functions.identity())));
+  }
+
+  static IntMatcher create(IntPredicate predicate, Matcher<Integer> boxed) {
+    requireNonNull(predicate);
+    requireNonNull(boxed);
+    return new IntMatcher() {
+      @Override
+      public boolean test(int value) {
+        return predicate.test(value);
+      }
+
+      @Override
+      public Matcher<Integer> boxed() {
+        return boxed;
+      }
+    };
+  }
+}
@@ -0,0 +1,104 @@
+package com.github.dakusui.crest.core;
+
+import com.github.dakusui.thincrest_pcond.functions.Functions;
+import com.github.dakusui.thincrest_pcond.functions.Predicates;
+
+import java.util.Arrays;
+import java.util.function.LongPredicate;
+import java.util.function.Predicate;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A matcher for an {@code long} value, which examines it without boxing. A matcher
+ * for boxed values equivalent to it is used only to explain a failure.
+ * <p>
+ * Matchers built by the factory methods of this interface do not allocate
+ * anything to examine a value.
+ *
+ * @see com.github.dakusui.crest.Crest#requireThat(String, long, LongMatcher)
+ */
+public interface LongMatcher {
+  boolean test(long value);
+
+  /**
+   * Returns a matcher for boxed values that is satisfied by the same values as
+   * this object is.
+   *
+   * @return A matcher for boxed values.
+   */
+  Matcher<Long> boxed();
+
+  default LongMatcher and(LongMatcher another) {
+    requireNonNull(another);
+    return create(
+        v -> this.test(v) && another.test(v),
+        Matcher.Conjunctive.create(Arrays.asList(this.boxed(), another.boxed()))
+    );
+  }
+
+  static LongMatcher gt(long value) {
+    return create(v -> v > value, Predicates.gt(value));
+  }
+
+  static LongMatcher ge(long value) {
+    return create(v -> v >= value, Predicates.ge(value));
+  }
+
+  static LongMatcher lt(long value) {
+    return create(v -> v < value, Predicates.lt(value));
+  }
+
+  static LongMatcher le(long value) {
+    return create(v -> v <= value, Predicates.le(value));
+  }
+
+  static LongMatcher eq(long value) {
+    return create(v -> v == value, Predicates.eq(value));
+  }
+
+  /**
+   * Returns a matcher that is satisfied when a value is within a range from
+   * {@code from} (inclusive) to {@code to} (exclusive).
+   *
+   * @param from The lower bound (inclusive).
+   * @param to   The upper bound (exclusive).
+   * @return A matcher.
+   */
+  static LongMatcher range(long from, long to) {
+    return ge(from).and(lt(to));
+  }
+
+  /**
+   * Creates a matcher from a matcher for boxed values. The returned one boxes
+   * a value to examine it, which may allocate an object.
+   *
+   * @param matcher A matcher for boxed values.
+   * @return A matcher.
+   */
+  @SuppressWarnings("unchecked")
+  static LongMatcher from(Matcher<? super Long> matcher) {
+    CompiledMatcher<Long> compiled = ((Matcher<Long>) matcher).compile();
+    return create(compiled::test, compiled.source());
+  }
+
+  static LongMatcher create(LongPredicate predicate, Predicate<? super Long> explanation) {
+    return create(predicate, Matcher.Leaf.create(explanation, TrivialFunction.create(Functions.identity())));
+  }
+
+  static LongMatcher create(LongPredicate predicate, Matcher<Long> boxed) {
+    requireNonNull(predicate);
+    requireNonNull(boxed);
+    return new LongMatcher() {
+      @Override
+      public boolean test(long value) {
+        return predicate.test(value);
+      }
+
+      @Override
+      public Matcher<Long> boxed() {
+        return boxed;
+      }
+    };
+  }
+}
@@ -1,11 +1,17 @@
 package com.github.dakusui.crest.core;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.function.Function;
 import java.util.function.Predicate;
 
+import static com.github.dakusui.crest.utils.InternalUtils.rethrow;
 import static com.github.dakusui.crest.utils.InternalUtils.throwIfBlacklisted;
 import static java.util.Objects.requireNonNull;
 
@@ -16,6 +22,52 @@ public interface Matcher<T> {
 
   void describeMismatch(T value, Session<T> session);
 
+  /**
+   * Compiles this matcher into a flat program, which can be applied to many
+   * values without allocating objects for its evaluation.
+   *
+   * @return A compiled matcher.
+   * @see CompiledMatcher
+   */
+  default CompiledMatcher<T> compile() {
+    return CompiledMatcher.compile(this);
+  }
+
+  /**
+   * Examines a given value without a session. Neither snapshots nor a report
+   * are created, and any exception makes this method return {@code false}.
+   * <p>
+   * To examine many values, use {@link #asPredicate()} instead, which compiles
+   * this matcher only once.
+   *
+   * @param value A value to be examined.
+   * @return {@code true} if and only if {@code value} satisfies this matcher
+   * without any exception.
+   */
+  default boolean test(T value) {
+    List<Throwable> exceptions = new LinkedList<>();
+    try {
+      return matches(value, Session.lightweight(), exceptions) && exceptions.isEmpty();
+    } catch (Throwable e) {
+      throwIfBlacklisted(e);
+      return false;
+    }
+  }
+
+  /**
+   * Returns a predicate backed by a matcher compiled from this object. The
+   * returned predicate does not hold any state of an evaluation and therefore
+   * can be used from multiple threads at once, e.g., by {@code Stream.filter}
+   * of a parallel stream, as long as functions and predicates in this matcher
+   * are thread-safe.
+   *
+   * @return A predicate equivalent to {@link #test(Object)}.
+   * @see #compile()
+   */
+  default Predicate<T> asPredicate() {
+    return compile()::test;
+  }
+
   interface Composite<T> extends Matcher<T> {
     default void describeExpectation(Session<T> session) {
       session.describeExpectation(this);
@@ -29,20 +81,68 @@ public interface Matcher<T> {
 
     String name();
 
+    /**
+     * Defines how children of a composite matcher are evaluated.
+     */
+    enum Strategy {
+      /**
+       * Evaluates all the children always. An exception thrown by any of them
+       * makes the composite fail even if its result is already determined by
+       * the others.
+       */
+      EAGER,
+      /**
+       * Stops evaluating children once the result of a composite is determined,
+       * e.g., when a child of {@code and} is not met. Children that are not
+       * evaluated, and therefore exceptions they would throw, do not affect
+       * the result. They are evaluated only when a mismatch is described.
+       */
+      SHORT_CIRCUIT,
+      /**
+       * Evaluates all the children concurrently, each with a session forked from
+       * the given one, on a shared pool of daemon threads. Results and exceptions
+       * are merged in the order of the children, and therefore the result and
+       * the report are the same as {@code EAGER}'s.
+       * <p>
+       * Functions and predicates in the children must be thread-safe. This is
+       * useful when they are slow but independent, e.g., calls to remote services.
+       *
+       * @see Session#fork()
+       */
+      PARALLEL
+    }
+
     abstract class Base<T> implements Composite<T> {
+      private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+        Thread ret = new Thread(runnable, "thincrest-parallel");
+        ret.setDaemon(true);
+        return ret;
+      });
+
       private final List<Matcher<T>> children;
+      private final Strategy         strategy;
 
-      @SuppressWarnings("unchecked")
       protected Base(List<Matcher<? super T>> children) {
-        this.children = (List<Matcher<T>>) Collections.<T>unmodifiableList((List<? extends T>) requireNonNull(children));
+        this(Strategy.EAGER, children);
+      }
+
+      @SuppressWarnings("unchecked")
+      protected Base(Strategy strategy, List<Matcher<? super T>> children) {
+        this.strategy = requireNonNull(strategy);
+        this.children = (List<Matcher<T>>) Collections.<T>unmodifiableList(new ArrayList<>((List<? extends T>) requireNonNull(children)));
       }
 
       @Override
       public boolean matches(T value, Session<T> session, List<Throwable> exceptions) {
+        if (strategy == Strategy.PARALLEL)
+          return matchesInParallel(value, session, exceptions);
         List<Throwable> work = new LinkedList<>();
         boolean ret = first();
-        for (Matcher<T> eachChild : children())
+        for (Matcher<T> eachChild : children()) {
           ret = op(ret, eachChild.matches(value, session, work));
+          if (strategy == Strategy.SHORT_CIRCUIT && isDetermined(ret))
+            break;
+        }
         exceptions.addAll(work);
         return ret && work.isEmpty();
       }
@@ -52,16 +152,70 @@ public interface Matcher<T> {
         return this.children;
       }
 
+      public Strategy strategy() {
+        return this.strategy;
+      }
+
+      private boolean matchesInParallel(T value, Session<T> session, List<Throwable> exceptions) {
+        if (children().isEmpty())
+          return first();
+        List<CompletableFuture<Fork<T>>> forks = new ArrayList<>(children().size());
+        for (Matcher<T> eachChild : children().subList(1, children().size()))
+          forks.add(CompletableFuture.supplyAsync(() -> new Fork<>(eachChild, value, session.fork()), EXECUTOR));
+        forks.add(0, CompletableFuture.completedFuture(new Fork<>(children().get(0), value, session.fork())));
+        List<Throwable> work = new LinkedList<>();
+        boolean ret = first();
+        for (CompletableFuture<Fork<T>> each : forks) {
+          Fork<T> fork = join(each);
+          session.join(fork.session);
+          work.addAll(fork.exceptions);
+          ret = op(ret, fork.result);
+        }
+        exceptions.addAll(work);
+        return ret && work.isEmpty();
+      }
+
+      private static <T> Fork<T> join(CompletableFuture<Fork<T>> future) {
+        try {
+          return future.join();
+        } catch (CompletionException e) {
+          // Only blacklisted errors reach here since each child catches the others.
+          throw rethrow(e.getCause());
+        }
+      }
+
+      /**
+       * Returns {@code true} if no child can change the result of this matcher
+       * anymore once it becomes {@code current}.
+       */
+      boolean isDetermined(boolean current) {
+        return op(current, true) == op(current, false);
+      }
+
       abstract protected boolean first();
 
       abstract protected boolean op(boolean current, boolean next);
 
+      private static class Fork<T> {
+        final Session<T>      session;
+        final List<Throwable> exceptions = new LinkedList<>();
+        final boolean         result;
+
+        Fork(Matcher<T> matcher, T value, Session<T> session) {
+          this.session = session;
+          this.result = matcher.matches(value, session, exceptions);
+        }
+      }
     }
   }
 
   interface Conjunctive<T> extends Composite<T> {
     static <T> Matcher<T> create(List<Matcher<? super T>> matchers) {
-      return new Conjunctive.Base<T>(matchers) {
+      return create(Strategy.EAGER, matchers);
+    }
+
+    static <T> Matcher<T> create(Strategy strategy, List<Matcher<? super T>> matchers) {
+      return new Conjunctive.Base<T>(strategy, matchers) {
         @Override
         public String name() {
           return "and";
@@ -82,7 +236,11 @@ public interface Matcher<T> {
 
   interface Disjunctive<T> extends Composite<T> {
     static <T> Matcher<T> create(List<Matcher<? super T>> matchers) {
-      return new Composite.Base<T>(matchers) {
+      return create(Strategy.EAGER, matchers);
+    }
+
+    static <T> Matcher<T> create(Strategy strategy, List<Matcher<? super T>> matchers) {
+      return new Composite.Base<T>(strategy, matchers) {
 
         @Override
         public String name() {
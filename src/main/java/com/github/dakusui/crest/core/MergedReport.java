@@ -0,0 +1,82 @@
+package com.github.dakusui.crest.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static java.lang.String.format;
+
+/**
+ * A report that consists of reports of multiple failures, each of which is
+ * prefixed with a label, e.g., an index of a failing element.
+ */
+class MergedReport implements Report {
+  private final String          expectation;
+  private final String          mismatch;
+  private final List<Throwable> exceptions;
+  private final boolean         successful;
+
+  private MergedReport(Builder builder) {
+    this.expectation = builder.expectation.toString();
+    this.mismatch = builder.mismatch.toString();
+    this.exceptions = Collections.unmodifiableList(new ArrayList<>(builder.exceptions));
+    this.successful = builder.successful;
+  }
+
+  @Override
+  public String expectation() {
+    return this.expectation;
+  }
+
+  @Override
+  public String mismatch() {
+    return this.mismatch;
+  }
+
+  @Override
+  public List<Throwable> exceptions() {
+    return this.exceptions;
+  }
+
+  @Override
+  public boolean isSuccessful() {
+    return this.successful;
+  }
+
+  static class Builder {
+    private final StringBuilder   expectation = new StringBuilder();
+    private final StringBuilder   mismatch    = new StringBuilder();
+    private final List<Throwable> exceptions  = new ArrayList<>();
+    private       boolean         successful  = true;
+
+    Builder add(String label, Report failure) {
+      appendEntry(this.expectation, label, failure.expectation());
+      appendEntry(this.mismatch, label, failure.mismatch());
+      this.exceptions.addAll(failure.exceptions());
+      this.successful = false;
+      return this;
+    }
+
+    /**
+     * Appends a line that summarizes failures whose reports are not added, which
+     * makes the report not successful even if no report is added.
+     */
+    Builder summary(String format, Object... args) {
+      if (this.mismatch.length() > 0)
+        this.mismatch.append("\n");
+      this.mismatch.append(format(format, args));
+      this.successful = false;
+      return this;
+    }
+
+    MergedReport build() {
+      return new MergedReport(this);
+    }
+
+    private static void appendEntry(StringBuilder builder, String label, String text) {
+      if (builder.length() > 0)
+        builder.append("\n");
+      builder.append(format("[%s] %s", label, text.replace("\n", "\n  ")));
+    }
+  }
+}
@@ -0,0 +1,216 @@
+package com.github.dakusui.crest.core;
+
+import com.github.dakusui.thincrest_pcond.functions.TransformingPredicate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Where the time of an evaluation of a matcher went, measured by a profiling
+ * session. {@link #render()} gives a tree in the same shape as an expectation
+ * of a report, each line of which is annotated with wall time, the number of
+ * evaluations, and memo hits.
+ * <pre>
+ * total: 20.45ms
+ * and:[                     20.38ms
+ *   x->startsWith["h"]      36us, calls=1
+ *     startsWith["h"]       7745ns, calls=1
+ *   x->length->slowGt[3]    20.29ms, calls=1
+ *     x->length             18us, calls=1, memo hits=1
+ *     slowGt[3]             20.25ms, calls=1
+ *   ...
+ * ]
+ * </pre>
+ * Times are inclusive. The time of a function called through reflection, e.g.,
+ * {@code call}, includes a search for the method to be called, which happens
+ * only on the first call for its class and arguments. The time of a composite
+ * matcher is the sum of the ones of its children.
+ * <p>
+ * A compiled matcher is profiled as the matcher it is compiled from. When it is
+ * nested in another matcher, though, its nodes are evaluated by a session only
+ * if its compiled program fails, and otherwise they are shown as not evaluated.
+ * Matchers that are neither composites nor leaves are shown as single rows
+ * without statistics.
+ *
+ * @see Session#profile(Object, Matcher)
+ */
+public class Profile {
+  /**
+   * Wall time, the number of evaluations, and the number of memo hits of a node.
+   */
+  public static final class Statistics {
+    private static final Statistics NONE = new Statistics();
+
+    long nanos;
+    int  invocations;
+    int  memoHits;
+
+    void record(long nanos) {
+      this.nanos += nanos;
+      this.invocations++;
+    }
+
+    void add(Statistics another) {
+      this.nanos += another.nanos;
+      this.invocations += another.invocations;
+      this.memoHits += another.memoHits;
+    }
+
+    public long nanos() {
+      return nanos;
+    }
+
+    public int invocations() {
+      return invocations;
+    }
+
+    public int memoHits() {
+      return memoHits;
+    }
+
+    @Override
+    public String toString() {
+      if (invocations == 0 && memoHits == 0)
+        return "not evaluated";
+      return memoHits == 0
+          ? format("%s, calls=%s", formatNanos(nanos), invocations)
+          : format("%s, calls=%s, memo hits=%s", formatNanos(nanos), invocations, memoHits);
+    }
+  }
+
+  private final Matcher<?>              matcher;
+  private final Map<Object, Statistics> statistics;
+  private final long                    totalNanos;
+  private final Report                  report;
+
+  Profile(Matcher<?> matcher, Map<Object, Statistics> statistics, long totalNanos, Report report) {
+    this.matcher = requireNonNull(matcher);
+    this.statistics = Collections.unmodifiableMap(statistics);
+    this.totalNanos = totalNanos;
+    this.report = requireNonNull(report);
+  }
+
+  /**
+   * Returns a report of the evaluation, which is {@link Report#SUCCESS} if the
+   * value satisfied the matcher.
+   *
+   * @return A report.
+   */
+  public Report report() {
+    return report;
+  }
+
+  public long totalNanos() {
+    return totalNanos;
+  }
+
+  /**
+   * Returns statistics of a leaf matcher, a function, or a predicate in the
+   * profiled matcher.
+   *
+   * @param node A leaf matcher, a function, or a predicate.
+   * @return Statistics of {@code node}, which are empty if it was not evaluated.
+   */
+  public Statistics statisticsOf(Object node) {
+    return statistics.getOrDefault(node, Statistics.NONE);
+  }
+
+  /**
+   * Renders this profile as a tree annotated with statistics of each node.
+   *
+   * @return A rendered profile.
+   */
+  public String render() {
+    List<String[]> rows = new ArrayList<>();
+    rows.add(new String[] { "total: " + formatNanos(totalNanos), "" });
+    renderMatcher(rows, matcher, 0);
+    int width = 0;
+    for (String[] each : rows)
+      width = Math.max(width, each[0].length());
+    StringBuilder b = new StringBuilder();
+    for (String[] each : rows) {
+      if (b.length() > 0)
+        b.append('\n');
+      b.append(each[1].isEmpty() ? each[0] : format("%-" + width + "s  %s", each[0], each[1]));
+    }
+    return b.toString();
+  }
+
+  @Override
+  public String toString() {
+    return render();
+  }
+
+  @SuppressWarnings("unchecked")
+  private long renderMatcher(List<String[]> rows, Matcher<?> matcher, int level) {
+    if (matcher instanceof CompiledMatcher)
+      return renderMatcher(rows, ((CompiledMatcher<?>) matcher).source(), level);
+    if (matcher instanceof Matcher.Composite) {
+      Matcher.Composite<?> composite = (Matcher.Composite<?>) matcher;
+      String[] header = new String[] { indent(level) + composite.name() + ":[", "" };
+      rows.add(header);
+      long nanos = 0;
+      for (Matcher<?> each : composite.children())
+        nanos += renderMatcher(rows, each, level + 1);
+      header[1] = formatNanos(nanos);
+      rows.add(new String[] { indent(level) + "]", "" });
+      return nanos;
+    }
+    if (!(matcher instanceof Matcher.Leaf)) {
+      rows.add(new String[] { indent(level) + matcher, "not profiled" });
+      return 0;
+    }
+    Matcher.Leaf<?> leaf = (Matcher.Leaf<?>) matcher;
+    rows.add(new String[] { indent(level) + Session.Impl.formatExpectation(leaf.p(), leaf.func()), statisticsOf(leaf).toString() });
+    renderFunction(rows, leaf.func(), level + 1);
+    renderPredicate(rows, leaf.p(), level + 1);
+    return statisticsOf(leaf).nanos;
+  }
+
+  private void renderFunction(List<String[]> rows, Function<?, ?> function, int level) {
+    if (function instanceof TrivialFunction)
+      return;
+    if (!(function instanceof ChainedFunction)) {
+      rows.add(new String[] { indent(level) + "x->" + function, statisticsOf(function).toString() });
+      return;
+    }
+    List<ChainedFunction<?, ?>> links = new ArrayList<>();
+    for (ChainedFunction<?, ?> c = (ChainedFunction<?, ?>) function; c != null; c = c.previous())
+      links.add(0, c);
+    for (ChainedFunction<?, ?> each : links)
+      rows.add(each.previous() == null
+          ? new String[] { indent(level) + "x->" + each, statisticsOf(each).toString() }
+          : new String[] { indent(level) + "->" + each.chained(), statisticsOf(each.chained()).toString() });
+  }
+
+  private void renderPredicate(List<String[]> rows, Predicate<?> predicate, int level) {
+    rows.add(new String[] { indent(level) + predicate, statisticsOf(predicate).toString() });
+    if (predicate instanceof TransformingPredicate) {
+      TransformingPredicate<?, ?> transforming = (TransformingPredicate<?, ?>) predicate;
+      rows.add(new String[] { indent(level + 1) + "y->" + transforming.function(), statisticsOf(transforming.function()).toString() });
+      rows.add(new String[] { indent(level + 1) + transforming.predicate(), statisticsOf(transforming.predicate()).toString() });
+    }
+  }
+
+  private static String indent(int level) {
+    StringBuilder b = new StringBuilder();
+    for (int i = 0; i < level; i++)
+      b.append("  ");
+    return b.toString();
+  }
+
+  static String formatNanos(long nanos) {
+    if (nanos < 10_000)
+      return nanos + "ns";
+    if (nanos < 10_000_000)
+      return (nanos / 1_000) + "us";
+    return format("%.2fms", nanos / 1_000_000.0);
+  }
+}
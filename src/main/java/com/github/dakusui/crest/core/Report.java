@@ -1,9 +1,34 @@
 package com.github.dakusui.crest.core;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.function.Consumer;
 
 public interface Report {
+  /**
+   * A report of a passing assertion.
+   */
+  Report SUCCESS = new Report() {
+    @Override
+    public String expectation() {
+      return "";
+    }
+
+    @Override
+    public String mismatch() {
+      return "";
+    }
+
+    @Override
+    public List<Throwable> exceptions() {
+      return Collections.emptyList();
+    }
+
+    @Override
+    public boolean isSuccessful() {
+      return true;
+    }
+  };
 
   String expectation();
 
@@ -0,0 +1,228 @@
+package com.github.dakusui.crest.core;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.github.dakusui.crest.utils.InternalUtils.requireArgument;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A precondition check that can be left enabled on a hot path. Only sampled
+ * calls are examined, by a matcher compiled from the given one, and only a
+ * limited number of failures per interval are explained by a full report.
+ * <p>
+ * A check keeps its own counters and rate limit. Create it once for a call site
+ * or a matcher and keep it in a field.
+ * <pre>
+ * private static final SampledCheck&lt;Order&gt; VALID_ORDER = SampledCheck.create(
+ *     asObject("lines").check(...).$(),
+ *     SampledCheck.Policy.probability(0.01).withReportLimit(1, Duration.ofMinutes(1)));
+ * ...
+ * requireThat(order, VALID_ORDER);
+ * </pre>
+ * <p>
+ * A failure of a sampled call always throws an {@link ExecutionFailure}. When
+ * the limit of reports is reached, its actual value tells only that the report
+ * was suppressed, and its expectation is the one of the matcher alone, which
+ * does not mention the value.
+ *
+ * @param <T> The type of values to be examined.
+ * @see com.github.dakusui.crest.Crest#requireThat(String, Object, SampledCheck)
+ */
+public class SampledCheck<T> {
+  /**
+   * Specifies which calls are examined and how many failures are reported.
+   * A call is examined if it is one of every {@code n} calls and then is chosen
+   * at {@code probability}.
+   */
+  public static final class Policy {
+    private final int    every;
+    private final double probability;
+    private final int    reportLimit;
+    private final long   reportInterval;
+    private final Clock  clock;
+    private final Random random;
+
+    private Policy(int every, double probability, int reportLimit, long reportInterval, Clock clock, Random random) {
+      this.every = requireArgument(every, v -> v >= 1);
+      this.probability = requireArgument(probability, v -> v >= 0.0 && v <= 1.0);
+      this.reportLimit = requireArgument(reportLimit, v -> v >= 1);
+      this.reportInterval = requireArgument(reportInterval, v -> v > 0);
+      this.clock = requireNonNull(clock);
+      this.random = random;
+    }
+
+    /**
+     * Returns a policy that examines every call and reports every failure.
+     *
+     * @return A policy that samples nothing out.
+     */
+    public static Policy always() {
+      return new Policy(1, 1.0, Integer.MAX_VALUE, Long.MAX_VALUE, Clock.SYSTEM, null);
+    }
+
+    public static Policy probability(double probability) {
+      return always().withProbability(probability);
+    }
+
+    public static Policy everyNth(int n) {
+      return always().withEvery(n);
+    }
+
+    public Policy withProbability(double probability) {
+      return new Policy(this.every, probability, this.reportLimit, this.reportInterval, this.clock, this.random);
+    }
+
+    public Policy withEvery(int n) {
+      return new Policy(n, this.probability, this.reportLimit, this.reportInterval, this.clock, this.random);
+    }
+
+    /**
+     * Returns a policy that builds full reports for at most {@code limit} failures
+     * in each {@code interval}.
+     *
+     * @param limit    The maximum number of reports in an interval.
+     * @param interval The length of an interval.
+     * @return A policy with a rate limit of reports.
+     */
+    public Policy withReportLimit(int limit, Duration interval) {
+      return new Policy(this.every, this.probability, limit, interval.toNanos(), this.clock, this.random);
+    }
+
+    public Policy withClock(Clock clock) {
+      return new Policy(this.every, this.probability, this.reportLimit, this.reportInterval, clock, this.random);
+    }
+
+    /**
+     * Returns a policy that samples calls with {@code random} instead of {@code ThreadLocalRandom}.
+     * A policy given a {@code Random} should not be used by multiple threads
+     * at once if reproducibility matters.
+     *
+     * @param random A source of sampling.
+     * @return A policy that uses {@code random}.
+     */
+    public Policy withRandom(Random random) {
+      return new Policy(this.every, this.probability, this.reportLimit, this.reportInterval, this.clock, requireNonNull(random));
+    }
+
+    boolean chosen() {
+      return probability == 1.0 || (random != null ? random : ThreadLocalRandom.current()).nextDouble() < probability;
+    }
+  }
+
+  private final Matcher<T>         matcher;
+  private final CompiledMatcher<T> compiled;
+  private final Policy             policy;
+
+  private final AtomicLong    calls           = new AtomicLong();
+  private final AtomicLong    windowStart;
+  private final AtomicInteger reportsInWindow = new AtomicInteger();
+  private final LongAdder     evaluated       = new LongAdder();
+  private final LongAdder     skipped         = new LongAdder();
+  private final LongAdder     failed          = new LongAdder();
+  private final LongAdder     suppressed      = new LongAdder();
+  private final String        expectation;
+
+  private SampledCheck(Matcher<T> matcher, Policy policy) {
+    this.matcher = matcher;
+    this.compiled = matcher.compile();
+    this.policy = policy;
+    this.windowStart = new AtomicLong(policy.clock.nanoTime());
+    this.expectation = expectationOf(matcher);
+  }
+
+  @SuppressWarnings("unchecked")
+  public static <T> SampledCheck<T> create(Matcher<? super T> matcher, Policy policy) {
+    return new SampledCheck<>((Matcher<T>) requireNonNull(matcher), requireNonNull(policy));
+  }
+
+  /**
+   * Examines {@code value} if this call is sampled, and throws an {@link ExecutionFailure}
+   * if it does not satisfy the matcher of this check.
+   *
+   * @param message A message of the exception thrown on a failure.
+   * @param value   A value to be examined.
+   */
+  public void require(String message, T value) {
+    if (!sampled()) {
+      skipped.increment();
+      return;
+    }
+    evaluated.increment();
+    if (compiled.test(value))
+      return;
+    failed.increment();
+    if (!permitReport()) {
+      suppressed.increment();
+      throw new ExecutionFailure(message, expectation, "(report suppressed: more than " + policy.reportLimit + " failure(s) in the interval)", Collections.emptyList());
+    }
+    Session.perform(message, value, matcher, (msg, r, causes) -> new ExecutionFailure(msg, r.expectation(), r.mismatch(), causes));
+  }
+
+  /**
+   * Returns the number of calls examined so far.
+   *
+   * @return The number of evaluated calls.
+   */
+  public long evaluated() {
+    return evaluated.sum();
+  }
+
+  /**
+   * Returns the number of calls not sampled so far.
+   *
+   * @return The number of skipped calls.
+   */
+  public long skipped() {
+    return skipped.sum();
+  }
+
+  /**
+   * Returns the number of examined calls whose values did not satisfy the matcher,
+   * including the ones whose reports were suppressed.
+   *
+   * @return The number of failed calls.
+   */
+  public long failed() {
+    return failed.sum();
+  }
+
+  /**
+   * Returns the number of failures that were not explained by full reports
+   * because of the rate limit.
+   *
+   * @return The number of suppressed reports.
+   */
+  public long suppressed() {
+    return suppressed.sum();
+  }
+
+  /*
+   * Renders the expectation of a matcher without a value, which a suppressed
+   * failure shows instead of the one of another failing value.
+   */
+  private static <T> String expectationOf(Matcher<T> matcher) {
+    Session<T> session = Session.create();
+    matcher.describeExpectation(session);
+    return session.report().expectation();
+  }
+
+  private boolean sampled() {
+    return (policy.every == 1 || calls.getAndIncrement() % policy.every == 0) && policy.chosen();
+  }
+
+  private boolean permitReport() {
+    if (policy.reportLimit == Integer.MAX_VALUE)
+      return true;
+    long now = policy.clock.nanoTime();
+    long start = windowStart.get();
+    if (now - start >= policy.reportInterval && windowStart.compareAndSet(start, now))
+      reportsInWindow.set(0);
+    return reportsInWindow.incrementAndGet() <= policy.reportLimit;
+  }
+}
@@ -3,16 +3,52 @@ package com.github.dakusui.crest.core;
 import com.github.dakusui.thincrest_pcond.functions.TransformingPredicate;
 import org.opentest4j.AssertionFailedError;
 
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.*;
 import java.util.function.*;
 
 import static com.github.dakusui.crest.utils.InternalUtils.*;
 import static java.lang.String.format;
-import static java.util.Arrays.asList;
+import static java.util.Objects.requireNonNull;
 
 public interface Session<T> {
   static <T> void perform(String message, T value, Matcher<? super T> matcher, ExceptionFactory exceptionFactory) {
-    Report report = perform(value, matcher);
+    perform(message, value, matcher, exceptionFactory, Mode.defaultMode());
+  }
+
+  @SuppressWarnings("unchecked")
+  static <T> void perform(String message, T value, Matcher<? super T> matcher, ExceptionFactory exceptionFactory, Mode mode) {
+    SessionListener listener = SessionListener.installed();
+    throwIfFailed(
+        message,
+        listener == null
+            ? mode.perform(value, (Matcher<T>) matcher)
+            : SessionListener.observe(listener, message, value, (Matcher<T>) matcher, () -> mode.perform(value, (Matcher<T>) matcher)),
+        exceptionFactory);
+  }
+
+  @SuppressWarnings("unchecked")
+  static <T> void perform(String message, T value, Matcher<? super T> matcher, ExceptionFactory exceptionFactory, Session<T> session) {
+    SessionListener listener = SessionListener.installed();
+    throwIfFailed(
+        message,
+        listener == null
+            ? perform(value, (Matcher<T>) matcher, session)
+            : SessionListener.observe(listener, message, value, (Matcher<T>) matcher, () -> perform(value, (Matcher<T>) matcher, session)),
+        exceptionFactory);
+  }
+
+  /**
+   * Throws an exception if a given {@code report} is not successful. If no exception
+   * was thrown during the evaluation, the one created by {@code exceptionFactory}
+   * is thrown. Otherwise, an {@link ExecutionFailure} that holds them is thrown.
+   *
+   * @param message          A message of the exception to be thrown.
+   * @param report           A report to be examined.
+   * @param exceptionFactory A factory of an exception thrown on a failure.
+   */
+  static void throwIfFailed(String message, Report report, ExceptionFactory exceptionFactory) {
     if (!report.isSuccessful()) {
       if (report.exceptions().isEmpty()) {
         Throwable exception = exceptionFactory.create(message, report, report.exceptions());
@@ -30,18 +66,37 @@ public interface Session<T> {
   }
 
   static <T> Report perform(T value, Matcher<T> matcher) {
-    return perform(value, matcher, create());
+    return Mode.defaultMode().perform(value, matcher);
   }
 
   static <T> Report perform(T value, Matcher<T> matcher, Session<T> session) {
     if (matcher.matches(value, session, new LinkedList<>())) {
       session.matched(true);
-    } else {
-      session.describeActualValue(value);
-      matcher.describeExpectation(session.matched(false));
-      matcher.describeMismatch(value, session);
+      return Report.SUCCESS;
     }
-    return session.report();
+    return explain(value, matcher, session);
+  }
+
+  /**
+   * Composes a report of a failure of {@code matcher} with {@code value}, which
+   * has already been evaluated with {@code session}.
+   *
+   * @param value   A value that did not satisfy {@code matcher}.
+   * @param matcher A matcher that was not satisfied.
+   * @param session A session with which {@code matcher} was evaluated.
+   * @param <T>     The type of {@code value}.
+   * @return A report of the failure.
+   */
+  static <T> Report explain(T value, Matcher<T> matcher, Session<T> session) {
+    SessionListener listener = SessionListener.installed();
+    long before = listener == null ? 0 : System.nanoTime();
+    session.describeActualValue(value);
+    matcher.describeExpectation(session.matched(false));
+    matcher.describeMismatch(value, session);
+    Report ret = session.report();
+    if (listener != null)
+      listener.reportRendered(System.nanoTime() - before);
+    return ret;
   }
 
   void describeActualValue(T value);
@@ -58,8 +113,6 @@ public interface Session<T> {
 
   @SuppressWarnings("unchecked")
   default <X> boolean matches(Matcher.Leaf<T> leaf, T value, Consumer<Throwable> listener) {
-    if (this instanceof Impl)
-      ((Impl<T>) this).snapshot(value, null, value);
     try {
       return this.test(
           (Predicate<X>) leaf.p(),
@@ -80,22 +133,303 @@ public interface Session<T> {
   <I> boolean test(Predicate<I> pred, I value);
 
   static <T> Session<T> create() {
-    return new Impl<>();
+    return create(KeyPolicy.defaultPolicy());
+  }
+
+  static <T> Session<T> create(KeyPolicy keyPolicy) {
+    return new Impl<>(keyPolicy);
+  }
+
+  /**
+   * Returns a session that evaluates each leaf matcher on another thread and
+   * gives it up when it does not finish within {@code perLeaf}, or when the
+   * evaluation of the entire matcher exceeds {@code total}. A leaf given up is
+   * regarded as failed with an {@link EvaluationTimeoutException}, which is
+   * recorded in the report, and the thread evaluating it is interrupted.
+   *
+   * @param perLeaf A time limit for each leaf.
+   * @param total   A time limit for the entire evaluation.
+   * @param <T>     The type of the value to be examined.
+   * @return A timeout-aware session.
+   */
+  static <T> Session<T> timed(Duration perLeaf, Duration total) {
+    return new Timed<>(KeyPolicy.defaultPolicy(), perLeaf.toNanos(), total.toNanos(), 0);
+  }
+
+  /**
+   * Evaluates {@code matcher} with {@code value} with a profiling session and
+   * returns where the time went, node by node, together with a report.
+   *
+   * @param value   A value to be examined.
+   * @param matcher A matcher to examine {@code value}.
+   * @param <T>     The type of {@code value}.
+   * @return A profile of the evaluation.
+   * @see Profile
+   */
+  @SuppressWarnings("unchecked")
+  static <T> Profile profile(T value, Matcher<? super T> matcher) {
+    Matcher<T> m = (Matcher<T>) matcher;
+    // A compiled program is not observable by a session. Profile its source instead.
+    while (m instanceof CompiledMatcher)
+      m = ((CompiledMatcher<T>) m).source();
+    Profiling<T> session = new Profiling<>(KeyPolicy.defaultPolicy());
+    long before = System.nanoTime();
+    boolean passed = m.matches(value, session, new LinkedList<>());
+    long elapsed = System.nanoTime() - before;
+    session.stop();
+    Report report = passed
+        ? Report.SUCCESS
+        : explain(value, m, session);
+    return new Profile(m, session.statistics, elapsed, report);
+  }
+
+  /**
+   * Returns a session that only evaluates a matcher. It does neither memoize
+   * nor snapshot anything during the evaluation. When it is asked to describe
+   * a failure, the evaluation is replayed in a full-featured session, where
+   * functions and predicates are evaluated again.
+   *
+   * @param <T> The type of the value to be examined.
+   * @return A lightweight session.
+   */
+  static <T> Session<T> lightweight() {
+    return new Lightweight<>();
   }
 
   Session<T> addException(Throwable exception);
 
   Session<T> matched(boolean b);
 
+  /**
+   * Discards everything this session has observed so far so that it can be used
+   * for another assertion. A report created before this method is called stays
+   * valid.
+   *
+   * @return This object.
+   */
+  Session<T> reset();
+
+  /**
+   * Creates a session with which a part of a matcher is evaluated on another
+   * thread, in parallel with this session. A forked session shares nothing with
+   * this one until it is given to {@link #join(Session)}.
+   *
+   * @return A forked session.
+   * @see Matcher.Composite.Strategy#PARALLEL
+   */
+  Session<T> fork();
+
+  /**
+   * Merges what a session created by {@link #fork()} has observed into this
+   * session. Exceptions recorded by {@code forked} are appended to this session's
+   * ones, so that joining forked sessions in a fixed order gives a deterministic
+   * report.
+   *
+   * @param forked A session created by {@code fork} of this object.
+   */
+  void join(Session<T> forked);
+
   @FunctionalInterface
   interface ExceptionFactory {
     Throwable create(String message, Report report, List<Throwable> causes);
   }
 
+  /**
+   * Specifies how an assertion is performed.
+   * <p>
+   * The default mode can be specified by a system property {@code thincrest.session.mode}.
+   * If it is not given, {@code DIAGNOSTIC} is used.
+   */
+  enum Mode {
+    /**
+     * Evaluates a matcher with a full-featured session, which records every
+     * value it observes so that a failure can be described without evaluating
+     * functions and predicates again.
+     */
+    DIAGNOSTIC {
+      @Override
+      public <T> Report perform(T value, Matcher<T> matcher) {
+        Impl<T> session = Impl.acquire();
+        try {
+          return Session.perform(value, matcher, session);
+        } finally {
+          Impl.release(session);
+        }
+      }
+    },
+    /**
+     * Evaluates a matcher with a lightweight session first. Only when it does not
+     * pass, the evaluation is replayed with a full-featured session to compose
+     * a report.
+     * <p>
+     * Note that functions and predicates in a failing matcher are evaluated twice
+     * in this mode.
+     *
+     * @see Session#lightweight()
+     */
+    FAST_PASS {
+      @SuppressWarnings("unchecked")
+      @Override
+      public <T> Report perform(T value, Matcher<T> matcher) {
+        if (matcher.matches(value, (Session<T>) Lightweight.INSTANCE, new LinkedList<>()))
+          return Report.SUCCESS;
+        return DIAGNOSTIC.perform(value, matcher);
+      }
+    };
+
+    private static final Mode DEFAULT = Mode.valueOf(System.getProperty("thincrest.session.mode", DIAGNOSTIC.name()));
+
+    public abstract <T> Report perform(T value, Matcher<T> matcher);
+
+    public static Mode defaultMode() {
+      return DEFAULT;
+    }
+  }
+
+  /**
+   * Specifies how a session looks up values it has already observed, when it
+   * memoizes results of functions and predicates and takes snapshots of them.
+   * <p>
+   * The default policy can be specified by a system property {@code thincrest.session.keyPolicy}.
+   * If it is not given, {@code IDENTITY} is used.
+   */
+  enum KeyPolicy {
+    /**
+     * Looks up values by their identities. Neither {@code hashCode} nor {@code equals}
+     * of a value is called, which can be expensive for a large collection or
+     * a deep object graph.
+     */
+    IDENTITY {
+      @Override
+      <K, V> Map<K, V> createMap() {
+        return new IdentityHashMap<>();
+      }
+    },
+    /**
+     * Looks up values by {@code hashCode} and {@code equals}. Results are shared
+     * among values equal to each other.
+     */
+    EQUALITY {
+      @Override
+      <K, V> Map<K, V> createMap() {
+        return new HashMap<>();
+      }
+    };
+
+    private static final KeyPolicy DEFAULT = KeyPolicy.valueOf(System.getProperty("thincrest.session.keyPolicy", IDENTITY.name()));
+
+    abstract <K, V> Map<K, V> createMap();
+
+    public static KeyPolicy defaultPolicy() {
+      return DEFAULT;
+    }
+  }
+
+  class Lightweight<T> implements Session<T> {
+    /*
+     * Used by 'FAST_PASS' mode, which never asks a session to describe anything.
+     */
+    private static final Lightweight<?> INSTANCE = new Lightweight<>();
+
+    /*
+     * A full-featured session in which an evaluation is replayed when this session
+     * is asked to describe a failure. Created only then.
+     */
+    private Impl<T> fallback;
+
+    private Lightweight() {
+    }
+
+    @Override
+    public <I, O> O apply(Function<I, O> func, I value) {
+      return func.apply(value);
+    }
+
+    @Override
+    public <I> boolean test(Predicate<I> pred, I value) {
+      return pred.test(value);
+    }
+
+    @Override
+    public Session<T> addException(Throwable exception) {
+      return this;
+    }
+
+    @Override
+    public Session<T> matched(boolean b) {
+      if (this.fallback != null)
+        this.fallback.matched(b);
+      return this;
+    }
+
+    @Override
+    public Session<T> reset() {
+      this.fallback = null;
+      return this;
+    }
+
+    @Override
+    public Session<T> fork() {
+      return new Lightweight<>();
+    }
+
+    @Override
+    public void join(Session<T> forked) {
+    }
+
+    @Override
+    public void describeActualValue(T value) {
+      Impl<T> session = fallback();
+      session.snapshot(value);
+      session.describeActualValue(value);
+    }
+
+    @Override
+    public Report report() {
+      return fallback().report();
+    }
+
+    @Override
+    public void describeExpectation(Matcher.Composite<T> matcher) {
+      fallback().describeExpectation(matcher);
+    }
+
+    @Override
+    public void describeExpectation(Matcher.Leaf<T> matcher) {
+      fallback().describeExpectation(matcher);
+    }
+
+    @Override
+    public void describeMismatch(T value, Matcher.Composite<T> matcher) {
+      replay(value, matcher).describeMismatch(value, matcher);
+    }
+
+    @Override
+    public void describeMismatch(T value, Matcher.Leaf<T> matcher) {
+      replay(value, matcher).describeMismatch(value, matcher);
+    }
+
+    private Impl<T> fallback() {
+      if (this.fallback == null)
+        this.fallback = new Impl<>(KeyPolicy.defaultPolicy());
+      return this.fallback;
+    }
+
+    /*
+     * Evaluates 'matcher' again in the fallback session, so that exceptions thrown
+     * during the evaluation are recorded and outcomes are memoized for describing.
+     */
+    private Impl<T> replay(T value, Matcher<T> matcher) {
+      Impl<T> ret = fallback();
+      ret.matched(matcher.matches(value, ret, new LinkedList<>()));
+      return ret;
+    }
+  }
+
   class Impl<T> implements Session<T> {
     static class Writer {
       private int level = 0;
-      private List<String> buffer = new LinkedList<>();
+      private List<String> buffer = new ArrayList<>();
 
       Impl.Writer enter() {
         level++;
@@ -123,26 +457,222 @@ public interface Session<T> {
         }
         return builder.toString();
       }
+
+      void reset() {
+        this.level = 0;
+        this.buffer.clear();
+      }
+    }
+
+    /**
+     * Holds an outcome of a function, a predicate, or a leaf matcher applied to
+     * a value, which is either a returned value or a thrown exception. Outcomes
+     * are recorded in a trace when a matcher is evaluated for the first time
+     * and a report is rendered from them afterwards. Nothing is evaluated twice
+     * within a session, therefore.
+     * <p>
+     * The value is rendered into a string only when a report actually needs it,
+     * i.e., when an assertion fails. Passing assertions, therefore, never call
+     * {@code toString} on the values they examine.
+     */
+    static class Outcome {
+      private Object  value;
+      private boolean failed;
+      private String  formatted;
+      /*
+       * A copy of 'value' taken before it was handed to a link of a chain that
+       * may modify it, or null if no copy has been taken.
+       */
+      private Object  captured;
+
+      Outcome set(Object value, boolean failed) {
+        this.value = value;
+        this.failed = failed;
+        this.formatted = null;
+        this.captured = null;
+        return this;
+      }
+
+      Object get() {
+        if (this.failed)
+          throw rethrow((Throwable) this.value);
+        return this.value;
+      }
+
+      void capture() {
+        if (this.captured == null && this.formatted == null)
+          this.captured = copyOf(this.value);
+      }
+
+      String format() {
+        if (this.formatted == null) {
+          this.formatted = formatSnapshot(this.captured != null ? this.captured : this.value, this.value);
+          this.captured = null;
+        }
+        return this.formatted;
+      }
+
+      static boolean isCapturable(Object value) {
+        return value instanceof StringBuilder
+            || value instanceof StringBuffer
+            || value instanceof Collection
+            || value instanceof Map
+            || (value != null && value.getClass().isArray());
+      }
+
+      /*
+       * Copies a value of a type accepted by 'isCapturable' without calling
+       * 'toString' on it or its elements. A copy is rendered the same way as
+       * the original.
+       */
+      private static Object copyOf(Object value) {
+        if (value instanceof StringBuilder)
+          return new StringBuilder((StringBuilder) value);
+        if (value instanceof StringBuffer)
+          return new StringBuffer((StringBuffer) value);
+        if (value instanceof Collection)
+          return new ArrayList<>((Collection<?>) value);
+        if (value instanceof Map)
+          return new LinkedHashMap<>((Map<?, ?>) value);
+        int length = java.lang.reflect.Array.getLength(value);
+        Object ret = java.lang.reflect.Array.newInstance(value.getClass().getComponentType(), length);
+        System.arraycopy(value, 0, ret, 0, length);
+        return ret;
+      }
     }
 
     private static final String VARIABLE_NAME = "x";
     private static final String TRANSFORMED_VARIABLE_NAME = "y";
-    private Map<Function<?, ?>, Function<?, ?>> memoizationMapForFunctions = new HashMap<>();
-    private Map<Predicate<?>, Predicate<?>> memoizationMapForPredicates = new HashMap<>();
-    private Map<List<Object>, String> snapshots = new HashMap<>();
+
+    /*
+     * A session reused by 'DIAGNOSTIC' mode on each thread. When an assertion is
+     * performed inside another one (e.g., a function in a matcher calls requireThat),
+     * the inner one is given a new session since the pooled one is in use.
+     * Pooling can be disabled by a system property 'thincrest.session.pooled'.
+     */
+    private static final boolean              POOLED = Boolean.parseBoolean(System.getProperty("thincrest.session.pooled", "true"));
+    private static final ThreadLocal<Impl<?>> POOL   = ThreadLocal.withInitial(() -> new Impl<>(KeyPolicy.defaultPolicy()));
+    /*
+     * Number of spare maps and outcomes a session keeps at most, so that a session
+     * once used for a huge matcher does not hold memory forever.
+     */
+    private static final int                  MAX_SPARES = 1024;
+
+    final KeyPolicy keyPolicy;
+    /*
+     * Outcomes of functions, predicates, and leaf matchers, keyed by them first
+     * and then by values given to them.
+     * Maps and outcomes discarded by 'reset' are kept in 'spare*' lists and reused.
+     */
+    private final Map<Object, Map<Object, Outcome>> trace         = new IdentityHashMap<>();
+    private final List<Map<Object, Outcome>>        traceMaps     = new ArrayList<>();
+    private final List<Outcome>                     outcomes      = new ArrayList<>();
+    private final List<Map<Object, Outcome>>        spareMaps     = new ArrayList<>();
+    private final List<Outcome>                     spareOutcomes = new ArrayList<>();
+    /*
+     * Outcomes whose values may be modified by a link of a chain and have not
+     * been captured yet, keyed by the values themselves.
+     */
+    private final Map<Object, List<Outcome>>        uncaptured    = new IdentityHashMap<>();
 
     Impl.Writer expectationWriter = new Impl.Writer();
     Impl.Writer mismatchWriter = new Impl.Writer();
 
     private boolean result;
-    private List<Throwable> exceptions = new LinkedList<>();
+    private List<Throwable> exceptions = new ArrayList<>();
+    private boolean inUse;
+    /*
+     * True while a mismatch of a leaf is described. A leaf skipped by 'SHORT_CIRCUIT'
+     * is evaluated then for the first time, and exceptions it throws must not
+     * affect the result.
+     */
+    private boolean describing;
+    /*
+     * Listeners installed when this session was created or acquired, or null
+     * if none was. Functions and predicates are timed only when it is not null.
+     */
+    private SessionListener listener;
+
+    Impl(KeyPolicy keyPolicy) {
+      this.keyPolicy = requireNonNull(keyPolicy);
+      this.listener = SessionListener.installed();
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> Impl<T> acquire() {
+      Impl<T> ret = (Impl<T>) POOL.get();
+      if (!POOLED || ret.inUse)
+        return new Impl<>(KeyPolicy.defaultPolicy());
+      ret.inUse = true;
+      ret.listener = SessionListener.installed();
+      return ret;
+    }
+
+    static void release(Impl<?> session) {
+      if (session.inUse) {
+        session.reset();
+        session.inUse = false;
+      }
+    }
+
+    @Override
+    public Session<T> reset() {
+      for (int i = 0; i < traceMaps.size() && spareMaps.size() < MAX_SPARES; i++) {
+        traceMaps.get(i).clear();
+        spareMaps.add(traceMaps.get(i));
+      }
+      for (int i = 0; i < outcomes.size() && spareOutcomes.size() < MAX_SPARES; i++)
+        spareOutcomes.add(outcomes.get(i).set(null, false));
+      trace.clear();
+      traceMaps.clear();
+      outcomes.clear();
+      uncaptured.clear();
+      expectationWriter.reset();
+      mismatchWriter.reset();
+      exceptions.clear();
+      result = false;
+      describing = false;
+      return this;
+    }
+
+    /*
+     * Discards what has been written for a report and replaces the exceptions
+     * with given ones, keeping memoized outcomes. With this, failures evaluated
+     * in one session can be explained one by one afterwards.
+     */
+    Impl<T> rewind(List<Throwable> exceptions) {
+      expectationWriter.reset();
+      mismatchWriter.reset();
+      this.exceptions.clear();
+      this.exceptions.addAll(exceptions);
+      result = false;
+      return this;
+    }
+
+    List<Throwable> exceptions() {
+      return this.exceptions;
+    }
+
+    @Override
+    public Session<T> fork() {
+      return new Impl<>(this.keyPolicy);
+    }
+
+    @Override
+    public void join(Session<T> forked) {
+      Impl<T> child = (Impl<T>) forked;
+      for (Map.Entry<Object, Map<Object, Outcome>> eachMap : child.trace.entrySet())
+        for (Map.Entry<Object, Outcome> each : eachMap.getValue().entrySet())
+          record(eachMap.getKey(), each.getKey(), each.getValue());
+      child.exceptions.forEach(this::addException);
+    }
 
     @Override
     public Report report() {
       if (!Impl.this.exceptions.isEmpty())
         mismatchWriter.appendLine("FAILED");
       return new Report() {
-        private List<Throwable> exceptions = Collections.unmodifiableList(Impl.this.exceptions);
+        private List<Throwable> exceptions = Collections.unmodifiableList(new ArrayList<>(Impl.this.exceptions));
         private boolean result = Impl.this.result;
         private String mismatch = mismatchWriter.write();
         private String expectation = expectationWriter.write();
@@ -210,9 +740,19 @@ public interface Session<T> {
       describeExpectationTo(expectationWriter, matcher);
     }
 
-    @SuppressWarnings("unchecked")
     @Override
     public void describeMismatch(T value, Matcher.Leaf<T> matcher) {
+      boolean wasDescribing = this.describing;
+      this.describing = true;
+      try {
+        describeMismatchOf(value, matcher);
+      } finally {
+        this.describing = wasDescribing;
+      }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void describeMismatchOf(T value, Matcher.Leaf<T> matcher) {
       if (this.matches(matcher, value, (Consumer<Throwable>) NOP)) {
         describeExpectationTo(mismatchWriter, matcher);
         return;
@@ -264,7 +804,8 @@ public interface Session<T> {
 
     @Override
     public Session<T> addException(Throwable exception) {
-      this.exceptions.add(exception);
+      if (!this.describing)
+        this.exceptions.add(exception);
       return this;
     }
 
@@ -304,22 +845,40 @@ public interface Session<T> {
     @SuppressWarnings("unchecked")
     @Override
     public <I, O> O apply(Function<I, O> func, I value) {
-      Object ret = null;
+      Outcome outcome = outcomeOf(func, value);
+      if (outcome == null)
+        outcome = record(func, value, listener == null ? evaluate(func, value) : observe(func, value));
+      else if (listener != null)
+        listener.memoHit(func);
+      return (O) outcome.get();
+    }
+
+    private <I, O> Outcome observe(Function<I, O> func, I value) {
+      listener.memoMissed(func);
+      long before = System.nanoTime();
+      Outcome ret = evaluate(func, value);
+      listener.functionApplied(func, System.nanoTime() - before, ret.failed);
+      return ret;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <I, O> Outcome evaluate(Function<I, O> func, I value) {
       try {
         if (func instanceof ChainedFunction) {
           ChainedFunction<I, O> cf = (ChainedFunction<I, O>) func;
           if (cf.previous() != null) {
-            ret = this.apply((Function<Object, Object>) cf.chained(), apply((Function<Object, Object>) cf.previous(), value));
-            return (O) ret;
+            // A link in a chain may modify the object given to it (e.g., StringBuilder#append).
+            // Capture outcomes holding the object before it is handed to the next link.
+            capture(value);
+            Object intermediate = apply((Function<Object, Object>) cf.previous(), value);
+            capture(intermediate);
+            return newOutcome(this.apply((Function<Object, Object>) cf.chained(), intermediate), false);
           }
         }
-        ret = memoizedFunction(func).apply(value);
-        return (O) ret;
+        return newOutcome(func.apply(value), false);
       } catch (Throwable e) {
-        ret = e;
-        throw rethrow(e);
-      } finally {
-        snapshot(ret, func, value);
+        throwIfBlacklisted(e);
+        return newOutcome(e, true);
       }
     }
 
@@ -335,19 +894,70 @@ public interface Session<T> {
      */
     @Override
     public <I> boolean test(Predicate<I> pred, I value) {
-      Object ret = null;
+      Outcome outcome = outcomeOf(pred, value);
+      if (outcome == null)
+        outcome = record(pred, value, listener == null ? evaluate(pred, value) : observe(pred, value));
+      else if (listener != null)
+        listener.memoHit(pred);
+      return (boolean) outcome.get();
+    }
+
+    private <I> Outcome observe(Predicate<I> pred, I value) {
+      listener.memoMissed(pred);
+      long before = System.nanoTime();
+      Outcome ret = evaluate(pred, value);
+      listener.predicateTested(pred, System.nanoTime() - before, ret.failed);
+      return ret;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <I> Outcome evaluate(Predicate<I> pred, I value) {
       try {
-        if (pred instanceof TransformingPredicate) {
-          ret = applyAndTest((TransformingPredicate<Object, Object>) pred, value);
-          return (boolean) ret;
-        }
-        ret = memoizedPredicate(pred).test(value);
-        return (boolean) ret;
+        if (pred instanceof TransformingPredicate)
+          return newOutcome(applyAndTest((TransformingPredicate<Object, Object>) pred, value), false);
+        return newOutcome(pred.test(value), false);
       } catch (Throwable e) {
-        ret = e;
-        throw rethrow(e);
-      } finally {
-        snapshot(ret, pred, value);
+        throwIfBlacklisted(e);
+        return newOutcome(e, true);
+      }
+    }
+
+    /**
+     * Evaluates a given leaf matcher only when it has not been evaluated with
+     * {@code value} yet. Otherwise, the recorded outcome is returned and an exception
+     * thrown by the first evaluation is given to {@code listener} again.
+     */
+    @Override
+    public <X> boolean matches(Matcher.Leaf<T> leaf, T value, Consumer<Throwable> listener) {
+      Outcome outcome = outcomeOf(leaf, value);
+      if (outcome == null) {
+        snapshot(value);
+        outcome = record(leaf, value, evaluate(leaf, value));
+      }
+      if (outcome.failed) {
+        listener.accept((Throwable) outcome.value);
+        return false;
+      }
+      return (boolean) outcome.value;
+    }
+
+    /*
+     * Records a value given to a matcher, from which 'describeActualValue' renders
+     * the actual value, unless it is already recorded.
+     */
+    void snapshot(T value) {
+      if (outcomeOf(null, value) == null)
+        record(null, value, newOutcome(value, false));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Outcome evaluate(Matcher.Leaf<T> leaf, T value) {
+      try {
+        return newOutcome(this.test((Predicate<Object>) leaf.p(), this.apply(leaf.func(), value)), false);
+      } catch (RuntimeException | Error exception) {
+        throwIfBlacklisted(exception);
+        addException(exception);
+        return newOutcome(exception, true);
       }
     }
 
@@ -362,54 +972,6 @@ public interface Session<T> {
       return this;
     }
 
-    @SuppressWarnings("unchecked")
-    private <I, O> Function<I, O> memoizedFunction(Function<I, O> function) {
-      return (Function<I, O>) memoizationMapForFunctions.computeIfAbsent(function, this::memoize);
-    }
-
-    @SuppressWarnings("unchecked")
-    private <I> Predicate<I> memoizedPredicate(Predicate<I> p) {
-      return (Predicate<I>) memoizationMapForPredicates.computeIfAbsent(p, this::memoize);
-    }
-
-    private <I, O> Function<I, O> memoize(Function<I, O> function) {
-      Map<I, Supplier<O>> memo = new HashMap<>();
-      return (I i) -> memo.computeIfAbsent(i,
-          (I j) -> {
-            try {
-              O result = function.apply(j);
-              return () -> result;
-            } catch (RuntimeException | Error e) {
-              throwIfBlacklisted(e);
-              return () -> {
-                if (e instanceof RuntimeException)
-                  throw (RuntimeException) e;
-                throw (Error) e;
-              };
-            }
-          }
-      ).get();
-    }
-
-    private <I> Predicate<I> memoize(Predicate<I> predicate) {
-      Map<I, BooleanSupplier> memo = new HashMap<>();
-      return (I i) -> memo.computeIfAbsent(i,
-          (I j) -> {
-            try {
-              boolean result = predicate.test(j);
-              return () -> result;
-            } catch (RuntimeException | Error e) {
-              throwIfBlacklisted(e);
-              return () -> {
-                if (e instanceof RuntimeException)
-                  throw (RuntimeException) e;
-                throw (Error) e;
-              };
-            }
-          }
-      ).getAsBoolean();
-    }
-
     private void explainMatcherPredicate(T value, Function<T, ?> func, Predicate<?> p) {
       if (p instanceof TransformingPredicate && !fails(func, value)) {
         explainTransformingPredicate(value, func, (TransformingPredicate<?, ?>) p);
@@ -498,26 +1060,75 @@ public interface Session<T> {
       }
     }
 
-    private void snapshot(Object out, Object funcOrPredicate, Object value) {
-      List<Object> key = asList(funcOrPredicate, value);
-      if (!snapshots.containsKey(key)) {
-        if (out instanceof String || out instanceof Throwable) {
-          snapshots.put(key, String.format("%s", summarizeValue(out)));
-        } else {
-          String simpleClassName = toSimpleClassName(out);
-          if ("".equals(simpleClassName))
-            snapshots.put(key, String.format("%s", summarizeValue(out)));
-          else
-            snapshots.put(key, String.format("%s:%s", summarizeValue(out), simpleClassName));
-        }
+    Outcome newOutcome(Object value, boolean failed) {
+      Outcome ret = spareOutcomes.isEmpty()
+          ? new Outcome()
+          : spareOutcomes.remove(spareOutcomes.size() - 1);
+      return ret.set(value, failed);
+    }
+
+    Outcome record(Object funcOrPredicate, Object value, Outcome outcome) {
+      Map<Object, Outcome> outcomesForFuncOrPredicate = trace.get(funcOrPredicate);
+      if (outcomesForFuncOrPredicate == null) {
+        outcomesForFuncOrPredicate = spareMaps.isEmpty()
+            ? keyPolicy.createMap()
+            : spareMaps.remove(spareMaps.size() - 1);
+        trace.put(funcOrPredicate, outcomesForFuncOrPredicate);
+        traceMaps.add(outcomesForFuncOrPredicate);
       }
+      Outcome ret = outcomesForFuncOrPredicate.get(value);
+      if (ret == null) {
+        outcomesForFuncOrPredicate.put(value, ret = outcome);
+        outcomes.add(ret);
+        if (!ret.failed && Outcome.isCapturable(ret.value))
+          uncaptured.computeIfAbsent(ret.value, k -> new ArrayList<>(2)).add(ret);
+      } else
+        spareOutcomes.add(outcome.set(null, false));
+      return ret;
+    }
+
+    Outcome outcomeOf(Object funcOrPredicate, Object value) {
+      Map<Object, Outcome> outcomes = trace.get(funcOrPredicate);
+      return outcomes == null
+          ? null
+          : outcomes.get(value);
+    }
+
+    /*
+     * Copies values of outcomes holding 'value', if it is of a JDK type known to
+     * be mutable, so that a report shows them as they were. Values of other types
+     * are not copied, since it is not possible without rendering them, and are
+     * rendered as they are when a report is composed.
+     */
+    private void capture(Object value) {
+      if (uncaptured.isEmpty())
+        return;
+      List<Outcome> outcomes = uncaptured.remove(value);
+      if (outcomes != null)
+        outcomes.forEach(Outcome::capture);
     }
 
     private <I> String snapshotOf(Object funcOrPred, I value) {
-      return this.snapshots.get(asList(funcOrPred, value));
+      Outcome outcome = outcomeOf(funcOrPred, value);
+      return outcome == null
+          ? null
+          : outcome.format();
+    }
+
+    /*
+     * Renders 'state', which is 'out' itself or a copy of it, with the class name
+     * of 'out'.
+     */
+    private static String formatSnapshot(Object state, Object out) {
+      if (out instanceof String || out instanceof Throwable)
+        return String.format("%s", summarizeValue(state));
+      String simpleClassName = toSimpleClassName(out);
+      if ("".equals(simpleClassName))
+        return String.format("%s", summarizeValue(state));
+      return String.format("%s:%s", summarizeValue(state), simpleClassName);
     }
 
-    private static String formatExpectation(Predicate<?> p, Function<?, ?> function) {
+    static String formatExpectation(Predicate<?> p, Function<?, ?> function) {
       if (p instanceof TransformingPredicate) {
         TransformingPredicate<?, ?> pp = (TransformingPredicate<?, ?>) p;
         return String.format("(%s=%s->%s)->%s %s", TRANSFORMED_VARIABLE_NAME, VARIABLE_NAME, function, pp.function(), pp.predicate());
@@ -525,4 +1136,196 @@ public interface Session<T> {
         return format("%s->%s", formatFunction(VARIABLE_NAME, function), p);
     }
   }
+
+  /**
+   * A session that measures wall time, the number of evaluations, and memo hits
+   * of every leaf matcher, function, and predicate, including each link of
+   * a {@link ChainedFunction} and each stage of a {@code TransformingPredicate}.
+   * Times are inclusive, e.g., the one of a leaf includes the ones of its function
+   * and predicate.
+   * <p>
+   * Nothing is recorded once {@link #stop()} is called, so that functions and
+   * predicates looked up again to render a report are not counted.
+   *
+   * @see Session#profile(Object, Matcher)
+   */
+  class Profiling<T> extends Impl<T> {
+    private final Map<Object, Profile.Statistics> statistics = new IdentityHashMap<>();
+    private       boolean                         recording  = true;
+
+    Profiling(KeyPolicy keyPolicy) {
+      super(keyPolicy);
+    }
+
+    void stop() {
+      this.recording = false;
+    }
+
+    @Override
+    public <I, O> O apply(Function<I, O> func, I value) {
+      if (!recording)
+        return super.apply(func, value);
+      Profile.Statistics statistics = statisticsOf(func);
+      if (outcomeOf(func, value) != null) {
+        statistics.memoHits++;
+        return super.apply(func, value);
+      }
+      long before = System.nanoTime();
+      try {
+        return super.apply(func, value);
+      } finally {
+        statistics.record(System.nanoTime() - before);
+      }
+    }
+
+    @Override
+    public <I> boolean test(Predicate<I> pred, I value) {
+      if (!recording)
+        return super.test(pred, value);
+      Profile.Statistics statistics = statisticsOf(pred);
+      if (outcomeOf(pred, value) != null) {
+        statistics.memoHits++;
+        return super.test(pred, value);
+      }
+      long before = System.nanoTime();
+      try {
+        return super.test(pred, value);
+      } finally {
+        statistics.record(System.nanoTime() - before);
+      }
+    }
+
+    @Override
+    public <X> boolean matches(Matcher.Leaf<T> leaf, T value, Consumer<Throwable> listener) {
+      if (!recording)
+        return super.matches(leaf, value, listener);
+      Profile.Statistics statistics = statisticsOf(leaf);
+      if (outcomeOf(leaf, value) != null) {
+        statistics.memoHits++;
+        return super.matches(leaf, value, listener);
+      }
+      long before = System.nanoTime();
+      try {
+        return super.matches(leaf, value, listener);
+      } finally {
+        statistics.record(System.nanoTime() - before);
+      }
+    }
+
+    @Override
+    public Session<T> fork() {
+      return new Profiling<>(this.keyPolicy);
+    }
+
+    @Override
+    public void join(Session<T> forked) {
+      super.join(forked);
+      for (Map.Entry<Object, Profile.Statistics> each : ((Profiling<T>) forked).statistics.entrySet())
+        statisticsOf(each.getKey()).add(each.getValue());
+    }
+
+    private Profile.Statistics statisticsOf(Object node) {
+      return statistics.computeIfAbsent(node, k -> new Profile.Statistics());
+    }
+  }
+
+  /**
+   * A session that evaluates each leaf matcher with a forked session on another
+   * thread and waits for it only until its deadline. Only outcomes of leaves that
+   * finished in time are merged into this session. A leaf that timed out is
+   * described by its expectation and the timeout, without being evaluated again.
+   *
+   * @see Session#timed(Duration, Duration)
+   */
+  class Timed<T> extends Impl<T> {
+    private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+      Thread ret = new Thread(runnable, "thincrest-timed");
+      ret.setDaemon(true);
+      return ret;
+    });
+
+    private final long perLeafNanos;
+    private final long totalNanos;
+    /*
+     * A value of System.nanoTime() at which the entire evaluation must finish,
+     * or 0 if the evaluation has not started yet.
+     */
+    private long deadline;
+
+    Timed(KeyPolicy keyPolicy, long perLeafNanos, long totalNanos, long deadline) {
+      super(keyPolicy);
+      this.perLeafNanos = requireArgument(perLeafNanos, v -> v > 0);
+      this.totalNanos = requireArgument(totalNanos, v -> v > 0);
+      this.deadline = deadline;
+    }
+
+    @Override
+    public <X> boolean matches(Matcher.Leaf<T> leaf, T value, Consumer<Throwable> listener) {
+      if (outcomeOf(leaf, value) == null) {
+        snapshot(value);
+        evaluateWithinDeadline(leaf, value);
+      }
+      return super.matches(leaf, value, listener);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public void describeMismatch(T value, Matcher.Leaf<T> matcher) {
+      Outcome outcome = outcomeOf(matcher, value);
+      if (outcome != null && outcome.failed && outcome.value instanceof EvaluationTimeoutException) {
+        this.mismatchWriter.appendLine(
+            "%s: %s",
+            formatExpectation(matcher.p(), matcher.func()),
+            ((Throwable) outcome.value).getMessage()
+        );
+        return;
+      }
+      super.describeMismatch(value, matcher);
+    }
+
+    @Override
+    public Session<T> fork() {
+      return new Timed<>(this.keyPolicy, this.perLeafNanos, this.totalNanos, deadline());
+    }
+
+    @Override
+    public Session<T> reset() {
+      this.deadline = 0;
+      return super.reset();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void evaluateWithinDeadline(Matcher.Leaf<T> leaf, T value) {
+      long timeout = Math.min(perLeafNanos, deadline() - System.nanoTime());
+      Impl<T> forked = new Impl<>(this.keyPolicy);
+      Future<Boolean> future = timeout > 0
+          ? EXECUTOR.submit(() -> forked.matches(leaf, value, (Consumer<Throwable>) NOP))
+          : null;
+      try {
+        if (future == null)
+          throw new TimeoutException();
+        future.get(timeout, TimeUnit.NANOSECONDS);
+        join(forked);
+      } catch (TimeoutException | InterruptedException e) {
+        if (future != null)
+          future.cancel(true);
+        if (e instanceof InterruptedException)
+          Thread.currentThread().interrupt();
+        EvaluationTimeoutException exception = new EvaluationTimeoutException(String.format(
+            "timed out: not finished within %sms",
+            TimeUnit.NANOSECONDS.toMillis(Math.max(timeout, 0))));
+        addException(exception);
+        record(leaf, value, newOutcome(exception, true));
+      } catch (ExecutionException e) {
+        // Only blacklisted errors reach here since the forked session catches the others.
+        throw rethrow(e.getCause());
+      }
+    }
+
+    private long deadline() {
+      if (this.deadline == 0)
+        this.deadline = System.nanoTime() + this.totalNanos;
+      return this.deadline;
+    }
+  }
 }
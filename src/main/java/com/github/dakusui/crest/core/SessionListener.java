@@ -0,0 +1,206 @@
+package com.github.dakusui.crest.core;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Observes assertions performed through {@link Session}s, e.g., to measure how
+ * long they take and which functions and predicates dominate them.
+ * <p>
+ * Listeners are installed in this JVM by {@link #install(SessionListener)}.
+ * When none is installed, a session does not even read the clock, and therefore
+ * costs nothing. A session picks up installed listeners when it starts an assertion.
+ * <p>
+ * Methods of a listener are called by threads that perform assertions, including
+ * the ones that evaluate matchers in parallel. They must be thread-safe, must
+ * not throw exceptions, and should return quickly. Functions and predicates are
+ * observed only by sessions that memoize them, i.e., not by {@link Session#lightweight()}.
+ *
+ * @see SessionStatistics
+ */
+public interface SessionListener {
+  /**
+   * Called when an assertion of {@code value} by {@code matcher} starts.
+   *
+   * @param message A message given to the assertion, which may be empty.
+   * @param value   A value to be examined.
+   * @param matcher A matcher to examine {@code value}.
+   */
+  default void assertionStarted(String message, Object value, Matcher<?> matcher) {
+  }
+
+  /**
+   * Called when an assertion finishes, including the time to render its report.
+   *
+   * @param message      A message given to the assertion, which may be empty.
+   * @param value        A value examined.
+   * @param matcher      A matcher that examined {@code value}.
+   * @param passed       {@code true} if {@code value} satisfied {@code matcher}.
+   * @param elapsedNanos The time the assertion took.
+   */
+  default void assertionFinished(String message, Object value, Matcher<?> matcher, boolean passed, long elapsedNanos) {
+  }
+
+  /**
+   * Called when a function is applied to a value for the first time in a session.
+   * If the function is a chain, the time includes the ones of its links.
+   *
+   * @param function     A function applied.
+   * @param elapsedNanos The time the function took.
+   * @param failed       {@code true} if the function threw an exception.
+   */
+  default void functionApplied(Function<?, ?> function, long elapsedNanos, boolean failed) {
+  }
+
+  /**
+   * Called when a predicate is tested with a value for the first time in a session.
+   *
+   * @param predicate    A predicate tested.
+   * @param elapsedNanos The time the predicate took.
+   * @param failed       {@code true} if the predicate threw an exception.
+   */
+  default void predicateTested(Predicate<?> predicate, long elapsedNanos, boolean failed) {
+  }
+
+  /**
+   * Called when an outcome of a function or a predicate is taken from the memo
+   * of a session instead of evaluating it again.
+   *
+   * @param functionOrPredicate A function or a predicate.
+   */
+  default void memoHit(Object functionOrPredicate) {
+  }
+
+  /**
+   * Called when a function or a predicate is not found in the memo of a session
+   * and is about to be evaluated.
+   *
+   * @param functionOrPredicate A function or a predicate.
+   */
+  default void memoMissed(Object functionOrPredicate) {
+  }
+
+  /**
+   * Called when a report of a failure is rendered.
+   *
+   * @param elapsedNanos The time the rendering took.
+   */
+  default void reportRendered(long elapsedNanos) {
+  }
+
+  /**
+   * Installs {@code listener} in this JVM. Installing the same one twice makes
+   * it be notified twice.
+   *
+   * @param listener A listener to be installed.
+   */
+  static void install(SessionListener listener) {
+    Registry.LISTENERS.add(requireNonNull(listener));
+    Registry.update();
+  }
+
+  static void uninstall(SessionListener listener) {
+    Registry.LISTENERS.remove(listener);
+    Registry.update();
+  }
+
+  /**
+   * Returns a listener that notifies all the installed ones, or {@code null}
+   * if none is installed.
+   *
+   * @return Installed listeners or {@code null}.
+   */
+  static SessionListener installed() {
+    return Registry.current;
+  }
+
+  static <T> Report observe(SessionListener listener, String message, T value, Matcher<T> matcher, Supplier<Report> assertion) {
+    listener.assertionStarted(message, value, matcher);
+    long before = System.nanoTime();
+    boolean passed = false;
+    try {
+      Report ret = assertion.get();
+      passed = ret.isSuccessful();
+      return ret;
+    } finally {
+      listener.assertionFinished(message, value, matcher, passed, System.nanoTime() - before);
+    }
+  }
+
+  class Registry {
+    private static final List<SessionListener> LISTENERS = new CopyOnWriteArrayList<>();
+    private static volatile SessionListener current = null;
+
+    static {
+      FlightRecording.install();
+      CallSiteStatistics.installIfRequested();
+    }
+
+    private Registry() {
+    }
+
+    private static synchronized void update() {
+      SessionListener[] listeners = LISTENERS.toArray(new SessionListener[0]);
+      current = listeners.length == 0
+          ? null
+          : listeners.length == 1
+          ? listeners[0]
+          : new Composite(listeners);
+    }
+  }
+
+  class Composite implements SessionListener {
+    private final SessionListener[] listeners;
+
+    private Composite(SessionListener[] listeners) {
+      this.listeners = listeners;
+    }
+
+    @Override
+    public void assertionStarted(String message, Object value, Matcher<?> matcher) {
+      for (SessionListener each : listeners)
+        each.assertionStarted(message, value, matcher);
+    }
+
+    @Override
+    public void assertionFinished(String message, Object value, Matcher<?> matcher, boolean passed, long elapsedNanos) {
+      for (SessionListener each : listeners)
+        each.assertionFinished(message, value, matcher, passed, elapsedNanos);
+    }
+
+    @Override
+    public void functionApplied(Function<?, ?> function, long elapsedNanos, boolean failed) {
+      for (SessionListener each : listeners)
+        each.functionApplied(function, elapsedNanos, failed);
+    }
+
+    @Override
+    public void predicateTested(Predicate<?> predicate, long elapsedNanos, boolean failed) {
+      for (SessionListener each : listeners)
+        each.predicateTested(predicate, elapsedNanos, failed);
+    }
+
+    @Override
+    public void memoHit(Object functionOrPredicate) {
+      for (SessionListener each : listeners)
+        each.memoHit(functionOrPredicate);
+    }
+
+    @Override
+    public void memoMissed(Object functionOrPredicate) {
+      for (SessionListener each : listeners)
+        each.memoMissed(functionOrPredicate);
+    }
+
+    @Override
+    public void reportRendered(long elapsedNanos) {
+      for (SessionListener each : listeners)
+        each.reportRendered(elapsedNanos);
+    }
+  }
+}
@@ -0,0 +1,263 @@
+package com.github.dakusui.crest.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import static java.lang.String.format;
+
+/**
+ * A {@link SessionListener} that aggregates what it observes without locks.
+ * Counts are kept by {@link LongAdder}s and latencies by {@link Histogram}s,
+ * one for assertions, one for rendering reports, and one for each function and
+ * predicate.
+ * <p>
+ * Functions and predicates are tracked up to {@value #MAX_ENTRIES} each. Ones
+ * seen after that, e.g., lambdas created for each assertion, are aggregated into
+ * a single histogram keyed by {@value #OTHERS}, so that memory used by this
+ * object stays bounded however long it is installed.
+ * <pre>
+ * SessionStatistics statistics = new SessionStatistics();
+ * SessionListener.install(statistics);
+ * ...
+ * System.out.println(statistics);
+ * </pre>
+ */
+public class SessionStatistics implements SessionListener {
+  /**
+   * The maximum number of functions, and that of predicates, tracked individually.
+   */
+  public static final int    MAX_ENTRIES = 1024;
+  /**
+   * A key of the histogram into which functions or predicates beyond {@value #MAX_ENTRIES}
+   * are aggregated.
+   */
+  public static final String OTHERS      = "(others)";
+
+  /**
+   * A histogram of latencies whose buckets are powers of two in nanoseconds.
+   * Each bucket is a striped counter, so that threads recording latencies at
+   * once do not contend on a single memory location.
+   */
+  public static class Histogram {
+    private static final int NUM_BUCKETS = 64;
+
+    private final LongAdder[]     buckets = new LongAdder[NUM_BUCKETS];
+    private final LongAdder       count   = new LongAdder();
+    private final LongAdder       total   = new LongAdder();
+    private final LongAccumulator max     = new LongAccumulator(Math::max, 0);
+
+    public Histogram() {
+      for (int i = 0; i < NUM_BUCKETS; i++)
+        buckets[i] = new LongAdder();
+    }
+
+    public void record(long nanos) {
+      long v = Math.max(nanos, 0);
+      buckets[NUM_BUCKETS - Long.numberOfLeadingZeros(v) - (v == 0 ? 0 : 1)].increment();
+      count.increment();
+      total.add(v);
+      max.accumulate(v);
+    }
+
+    public long count() {
+      return count.sum();
+    }
+
+    public long totalNanos() {
+      return total.sum();
+    }
+
+    public long maxNanos() {
+      return max.get();
+    }
+
+    public long meanNanos() {
+      long count = count();
+      return count == 0 ? 0 : totalNanos() / count;
+    }
+
+    /**
+     * Returns an upper bound of the latency below which {@code percentile} percent
+     * of the recorded ones fall. It is accurate within a factor of two.
+     *
+     * @param percentile A percentile between 0 and 100.
+     * @return An upper bound of the latency in nanoseconds.
+     */
+    public long percentileNanos(double percentile) {
+      long[] counts = new long[NUM_BUCKETS];
+      long count = 0;
+      for (int i = 0; i < NUM_BUCKETS; i++)
+        count += counts[i] = buckets[i].sum();
+      long threshold = (long) Math.ceil(count * percentile / 100);
+      long cumulative = 0;
+      for (int i = 0; i < NUM_BUCKETS; i++) {
+        cumulative += counts[i];
+        if (cumulative >= threshold && cumulative > 0)
+          return Math.min(i == NUM_BUCKETS - 1 ? Long.MAX_VALUE : (1L << (i + 1)) - 1, maxNanos());
+      }
+      return 0;
+    }
+
+    void clear() {
+      for (LongAdder each : buckets)
+        each.reset();
+      count.reset();
+      total.reset();
+      max.reset();
+    }
+
+    @Override
+    public String toString() {
+      return format("count=%s, mean=%sns, p50=%sns, p99=%sns, max=%sns",
+          count(), meanNanos(), percentileNanos(50), percentileNanos(99), maxNanos());
+    }
+  }
+
+  private final Histogram              assertions = new Histogram();
+  private final Histogram              reports    = new Histogram();
+  private final Map<Object, Histogram> functions  = new ConcurrentHashMap<>();
+  private final Map<Object, Histogram> predicates = new ConcurrentHashMap<>();
+
+  private final LongAdder passed     = new LongAdder();
+  private final LongAdder failed     = new LongAdder();
+  private final LongAdder memoHits   = new LongAdder();
+  private final LongAdder memoMisses = new LongAdder();
+  private final LongAdder exceptions = new LongAdder();
+
+  @Override
+  public void assertionFinished(String message, Object value, Matcher<?> matcher, boolean passed, long elapsedNanos) {
+    (passed ? this.passed : this.failed).increment();
+    assertions.record(elapsedNanos);
+  }
+
+  @Override
+  public void functionApplied(Function<?, ?> function, long elapsedNanos, boolean failed) {
+    histogramOf(functions, function).record(elapsedNanos);
+    if (failed)
+      exceptions.increment();
+  }
+
+  @Override
+  public void predicateTested(Predicate<?> predicate, long elapsedNanos, boolean failed) {
+    histogramOf(predicates, predicate).record(elapsedNanos);
+    if (failed)
+      exceptions.increment();
+  }
+
+  @Override
+  public void memoHit(Object functionOrPredicate) {
+    memoHits.increment();
+  }
+
+  @Override
+  public void memoMissed(Object functionOrPredicate) {
+    memoMisses.increment();
+  }
+
+  @Override
+  public void reportRendered(long elapsedNanos) {
+    reports.record(elapsedNanos);
+  }
+
+  public long passed() {
+    return passed.sum();
+  }
+
+  public long failed() {
+    return failed.sum();
+  }
+
+  public long memoHits() {
+    return memoHits.sum();
+  }
+
+  public long memoMisses() {
+    return memoMisses.sum();
+  }
+
+  /**
+   * Returns the number of evaluations of functions and predicates that threw
+   * exceptions.
+   *
+   * @return The number of exceptions.
+   */
+  public long exceptions() {
+    return exceptions.sum();
+  }
+
+  public Histogram assertions() {
+    return assertions;
+  }
+
+  public Histogram reports() {
+    return reports;
+  }
+
+  /**
+   * Returns histograms of functions keyed by the functions themselves, or by
+   * {@value #OTHERS} for ones beyond {@value #MAX_ENTRIES}.
+   *
+   * @return An unmodifiable view of the histograms of functions.
+   */
+  public Map<Object, Histogram> functions() {
+    return Collections.unmodifiableMap(functions);
+  }
+
+  public Map<Object, Histogram> predicates() {
+    return Collections.unmodifiableMap(predicates);
+  }
+
+  /**
+   * Returns functions and predicates that took the longest time in total, in
+   * descending order of it.
+   *
+   * @param n The maximum number of entries.
+   * @return Functions and predicates with their histograms.
+   */
+  public List<Map.Entry<Object, Histogram>> dominant(int n) {
+    List<Map.Entry<Object, Histogram>> ret = new ArrayList<>(functions.entrySet());
+    ret.addAll(predicates.entrySet());
+    ret.sort(Comparator.comparingLong((Map.Entry<Object, Histogram> e) -> e.getValue().totalNanos()).reversed());
+    return ret.subList(0, Math.min(n, ret.size()));
+  }
+
+  /**
+   * Discards everything recorded so far. Observations made concurrently with
+   * this method may be partially lost.
+   */
+  public void clear() {
+    assertions.clear();
+    reports.clear();
+    functions.clear();
+    predicates.clear();
+    for (LongAdder each : new LongAdder[] { passed, failed, memoHits, memoMisses, exceptions })
+      each.reset();
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder b = new StringBuilder();
+    b.append(format("assertions: passed=%s, failed=%s, %s%n", passed(), failed(), assertions));
+    b.append(format("reports: %s%n", reports));
+    b.append(format("memo: hits=%s, misses=%s, exceptions=%s%n", memoHits(), memoMisses(), exceptions()));
+    for (Map.Entry<Object, Histogram> each : dominant(10))
+      b.append(format("  %s: %s%n", each.getKey(), each.getValue()));
+    return b.toString();
+  }
+
+  private static Histogram histogramOf(Map<Object, Histogram> histograms, Object key) {
+    Histogram ret = histograms.get(key);
+    if (ret != null)
+      return ret;
+    // Checked without a lock, the cap can be exceeded by a few concurrent threads.
+    return histograms.computeIfAbsent(histograms.size() < MAX_ENTRIES ? key : OTHERS, k -> new Histogram());
+  }
+}
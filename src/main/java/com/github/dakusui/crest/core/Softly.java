@@ -0,0 +1,149 @@
+package com.github.dakusui.crest.core;
+
+import org.opentest4j.AssertionFailedError;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+
+import static com.github.dakusui.crest.utils.InternalUtils.requireArgument;
+
+/**
+ * Collects failures of many independent assertions and reports them all at once
+ * by {@link #verify(String)}, instead of throwing an exception at the first one.
+ * <p>
+ * Each assertion is first evaluated with a lightweight session. A failing one
+ * is evaluated again with a full-featured session, which is shared by all the
+ * failures and kept until the end, and rendered into a report only then. Only
+ * first {@code maxReports} failures are kept and the rest are just counted,
+ * so that the cost of a report stays bounded even when thousands of assertions fail.
+ * <p>
+ * Note that values are rendered when {@code verify} is called. If a value is
+ * modified after it is asserted, the report shows the modified one.
+ */
+public interface Softly {
+  int DEFAULT_MAX_REPORTS = 100;
+
+  default <T> Softly assertThat(T value, Matcher<? super T> matcher) {
+    return assertThat("", value, matcher);
+  }
+
+  <T> Softly assertThat(String message, T value, Matcher<? super T> matcher);
+
+  /**
+   * Returns the number of failures found so far, including the ones whose reports
+   * are not kept.
+   *
+   * @return The number of failures.
+   */
+  int failures();
+
+  /**
+   * Renders reports of the failures kept so far into one.
+   *
+   * @return A merged report.
+   */
+  Report report();
+
+  /**
+   * Throws an {@code AssertionFailedError} whose expected and actual values cover
+   * all the failures found so far, if any. If exceptions were thrown during the
+   * evaluation, an {@code ExecutionFailure} is thrown instead.
+   *
+   * @param message A message of the exception to be thrown.
+   */
+  default void verify(String message) {
+    Session.throwIfFailed(
+        message,
+        report(),
+        (msg, r, causes) -> new AssertionFailedError(msg, r.expectation(), r.mismatch())
+    );
+  }
+
+  static Softly create() {
+    return create(DEFAULT_MAX_REPORTS);
+  }
+
+  static Softly create(int maxReports) {
+    return new Impl(maxReports);
+  }
+
+  class Impl implements Softly {
+    private final int                  maxReports;
+    private final List<Failure<?>>     failures = new ArrayList<>();
+    private final Session.Impl<Object> session  = new Session.Impl<>(Session.KeyPolicy.defaultPolicy());
+    private       int                  numFailures;
+
+    Impl(int maxReports) {
+      this.maxReports = requireArgument(maxReports, v -> v >= 0);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T> Softly assertThat(String message, T value, Matcher<? super T> matcher) {
+      Matcher<T> m = (Matcher<T>) matcher;
+      if (m.matches(value, Session.lightweight(), new LinkedList<>()))
+        return this;
+      if (numFailures++ >= maxReports)
+        return this;
+      Session.Impl<T> session = (Session.Impl<T>) (Session.Impl<?>) this.session;
+      int numExceptions = session.exceptions().size();
+      if (m.matches(value, session, new LinkedList<>())) {
+        // The shared session remembers outcomes of an earlier assertion of the
+        // same object, which has been modified since then.
+        session = new Session.Impl<>(Session.KeyPolicy.defaultPolicy());
+        numExceptions = 0;
+        m.matches(value, session, new LinkedList<>());
+      }
+      List<Throwable> exceptions = new ArrayList<>(session.exceptions().subList(numExceptions, session.exceptions().size()));
+      failures.add(new Failure<>(numFailures, message, value, m, session, exceptions));
+      return this;
+    }
+
+    @Override
+    public int failures() {
+      return this.numFailures;
+    }
+
+    @Override
+    public Report report() {
+      MergedReport.Builder builder = new MergedReport.Builder();
+      for (Failure<?> each : failures)
+        builder.add(each.label(), each.explain());
+      if (numFailures > failures.size())
+        builder.summary("...and %s more failure(s)", numFailures - failures.size());
+      return builder.build();
+    }
+
+    private static class Failure<T> {
+      private final int             ordinal;
+      private final String          message;
+      private final T               value;
+      private final Matcher<T>      matcher;
+      private final Session.Impl<T> session;
+      private final List<Throwable> exceptions;
+      private       Report          report;
+
+      Failure(int ordinal, String message, T value, Matcher<T> matcher, Session.Impl<T> session, List<Throwable> exceptions) {
+        this.ordinal = ordinal;
+        this.message = message;
+        this.value = value;
+        this.matcher = matcher;
+        this.session = session;
+        this.exceptions = exceptions;
+      }
+
+      String label() {
+        return message.isEmpty()
+            ? Integer.toString(ordinal)
+            : ordinal + ": " + message;
+      }
+
+      Report explain() {
+        if (this.report == null)
+          this.report = Session.explain(value, matcher, session.rewind(exceptions));
+        return this.report;
+      }
+    }
+  }
+}
@@ -0,0 +1,197 @@
+package com.github.dakusui.crest.matcherbuilders;
+
+import com.github.dakusui.crest.core.Matcher;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import static com.github.dakusui.crest.utils.InternalUtils.requireArgument;
+import static com.github.dakusui.thincrest_pcond.functions.Predicates.alwaysTrue;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A matcher whose expected values are given later. A template is created from
+ * a matcher builder by {@link ObjectMatcherBuilder#template()} only once and
+ * bound to expected values of each row of a data-driven test by {@link #bind(Object...)}.
+ * <pre>
+ * MatcherTemplate.Binary&lt;String, String, String, String&gt; template = Crest.&lt;String&gt;asString(call("substring", 1).$())
+ *     .template()
+ *     .with(String.class, Predicates::startsWith)
+ *     .with(String.class, Predicates::containsString);
+ * for (Row row : rows)
+ *   assertThat(row.value, template.bind(row.prefix, row.infix));
+ * </pre>
+ * <p>
+ * Matchers bound from one template share its function and the leaves for the
+ * predicates given to the builder, so that neither the function chain nor
+ * the methods it calls are resolved again. Only a predicate for each parameter
+ * is created on binding.
+ * <p>
+ * Templates with one or two parameters are {@link Unary} and {@link Binary},
+ * whose {@code bind} methods are typed. Arguments given to {@link #bind(Object...)}
+ * are checked against the types of the parameters.
+ *
+ * @param <IN>  The type of the value to be examined.
+ * @param <OUT> The type of the output of the function of the template.
+ */
+public class MatcherTemplate<IN, OUT> {
+  private final Function<? super IN, ? extends OUT> function;
+  private final List<Matcher<? super IN>>           fixed;
+  private final List<Parameter<?, OUT>>             parameters;
+
+  private MatcherTemplate(Function<? super IN, ? extends OUT> function, List<Predicate<? super OUT>> predicates) {
+    this.function = requireNonNull(function);
+    List<Matcher<? super IN>> fixed = new ArrayList<>(predicates.size());
+    for (Predicate<? super OUT> each : predicates)
+      fixed.add(Matcher.Leaf.create(each, function));
+    this.fixed = Collections.unmodifiableList(fixed);
+    this.parameters = Collections.emptyList();
+  }
+
+  private MatcherTemplate(MatcherTemplate<IN, OUT> base, Parameter<?, OUT> parameter) {
+    this.function = base.function;
+    this.fixed = base.fixed;
+    List<Parameter<?, OUT>> work = new ArrayList<>(base.parameters);
+    work.add(parameter);
+    this.parameters = Collections.unmodifiableList(work);
+  }
+
+  /**
+   * Returns a new template that has a parameter in addition to the ones of this
+   * template. On binding, {@code predicateFactory} is applied to the argument
+   * for the parameter to create a predicate to be checked.
+   *
+   * @param parameterType    The type of the argument, which must not be primitive.
+   * @param predicateFactory A function that creates a predicate from an argument.
+   * @param <P>              The type of the argument.
+   * @return A new template.
+   */
+  public <P> MatcherTemplate<IN, OUT> with(Class<P> parameterType, Function<? super P, ? extends Predicate<? super OUT>> predicateFactory) {
+    return new MatcherTemplate<>(this, new Parameter<>(parameterType, predicateFactory));
+  }
+
+  /**
+   * Returns the number of parameters of this template.
+   *
+   * @return The number of parameters.
+   */
+  public int arity() {
+    return this.parameters.size();
+  }
+
+  /**
+   * Creates a matcher that is satisfied when all the predicates given to the
+   * builder and all the ones created from {@code args} are satisfied.
+   *
+   * @param args Arguments for parameters of this template in the order they were added.
+   * @return A matcher.
+   * @throws IllegalArgumentException The number of {@code args} is not the arity
+   *                                  of this template, or an argument is not
+   *                                  an instance of the type of its parameter.
+   */
+  public Matcher<? super IN> bind(Object... args) {
+    requireArgument(args, v -> v.length == arity());
+    List<Matcher<? super IN>> matchers = new ArrayList<>(fixed.size() + args.length);
+    matchers.addAll(fixed);
+    for (int i = 0; i < args.length; i++)
+      matchers.add(Matcher.Leaf.create(parameters.get(i).createPredicate(i, args[i]), function));
+    if (matchers.isEmpty())
+      matchers.add(Matcher.Leaf.create(alwaysTrue(), function));
+    return matchers.size() == 1
+        ? matchers.get(0)
+        : Matcher.Conjunctive.create(matchers);
+  }
+
+  /**
+   * A template without parameters, which is returned by {@link ObjectMatcherBuilder#template()}.
+   *
+   * @param <IN>  The type of the value to be examined.
+   * @param <OUT> The type of the output of the function of the template.
+   */
+  public static class Nullary<IN, OUT> extends MatcherTemplate<IN, OUT> {
+    Nullary(Function<? super IN, ? extends OUT> function, List<Predicate<? super OUT>> predicates) {
+      super(function, predicates);
+    }
+
+    @Override
+    public <P> Unary<IN, OUT, P> with(Class<P> parameterType, Function<? super P, ? extends Predicate<? super OUT>> predicateFactory) {
+      return new Unary<>(this, new Parameter<>(parameterType, predicateFactory));
+    }
+  }
+
+  /**
+   * A template with one parameter.
+   *
+   * @param <IN>  The type of the value to be examined.
+   * @param <OUT> The type of the output of the function of the template.
+   * @param <P1>  The type of the parameter.
+   */
+  public static class Unary<IN, OUT, P1> extends MatcherTemplate<IN, OUT> {
+    private Unary(MatcherTemplate<IN, OUT> base, Parameter<P1, OUT> parameter) {
+      super(base, parameter);
+    }
+
+    @Override
+    public <P> Binary<IN, OUT, P1, P> with(Class<P> parameterType, Function<? super P, ? extends Predicate<? super OUT>> predicateFactory) {
+      return new Binary<>(this, new Parameter<>(parameterType, predicateFactory));
+    }
+
+    /**
+     * Creates a matcher from an argument for the parameter of this template.
+     *
+     * @param arg1 An argument for the parameter.
+     * @return A matcher.
+     * @see MatcherTemplate#bind(Object...)
+     */
+    public Matcher<? super IN> bind(P1 arg1) {
+      return super.bind(arg1);
+    }
+  }
+
+  /**
+   * A template with two parameters.
+   *
+   * @param <IN>  The type of the value to be examined.
+   * @param <OUT> The type of the output of the function of the template.
+   * @param <P1>  The type of the first parameter.
+   * @param <P2>  The type of the second parameter.
+   */
+  public static class Binary<IN, OUT, P1, P2> extends MatcherTemplate<IN, OUT> {
+    private Binary(MatcherTemplate<IN, OUT> base, Parameter<P2, OUT> parameter) {
+      super(base, parameter);
+    }
+
+    /**
+     * Creates a matcher from arguments for the parameters of this template.
+     *
+     * @param arg1 An argument for the first parameter.
+     * @param arg2 An argument for the second parameter.
+     * @return A matcher.
+     * @see MatcherTemplate#bind(Object...)
+     */
+    public Matcher<? super IN> bind(P1 arg1, P2 arg2) {
+      return super.bind(arg1, arg2);
+    }
+  }
+
+  private static class Parameter<P, OUT> {
+    private final Class<P>                                             type;
+    private final Function<? super P, ? extends Predicate<? super OUT>> predicateFactory;
+
+    private Parameter(Class<P> type, Function<? super P, ? extends Predicate<? super OUT>> predicateFactory) {
+      this.type = requireArgument(requireNonNull(type), v -> !v.isPrimitive());
+      this.predicateFactory = requireNonNull(predicateFactory);
+    }
+
+    private Predicate<? super OUT> createPredicate(int index, Object arg) {
+      if (arg != null && !type.isInstance(arg))
+        throw new IllegalArgumentException(String.format(
+            "Argument <%s> for parameter #%d is not an instance of <%s> but <%s>",
+            arg, index, type.getName(), arg.getClass().getName()));
+      return predicateFactory.apply(type.cast(arg));
+    }
+  }
+}
@@ -12,20 +12,32 @@ import java.util.function.Predicate;
 
 import static com.github.dakusui.thincrest_pcond.functions.Predicates.alwaysTrue;
 
-public abstract class ObjectMatcherBuilder<IN, OUT, SELF extends ObjectMatcherBuilder<IN, OUT, SELF>> implements MatcherBuilder<IN, OUT, SELF> {
+/**
+ * A base of matcher builders. A builder is immutable. Each method that adds
+ * a check returns a new builder, which shares the checks added so far with
+ * this one, and leaves this builder unchanged. Therefore, a builder and
+ * matchers built from it can be shared by multiple threads, e.g., as a value
+ * of a {@code static final} field.
+ */
+public abstract class ObjectMatcherBuilder<IN, OUT, SELF extends ObjectMatcherBuilder<IN, OUT, SELF>> implements MatcherBuilder<IN, OUT, SELF>, Cloneable {
   private final Function<? super IN, ? extends OUT> function;
-  private final List<Predicate<? super OUT>>        predicates;
+  /*
+   * Checks added so far, the last one first. This is assigned only to a builder
+   * just cloned, before it is returned.
+   */
+  private       Checks<OUT>                         checks;
 
   public ObjectMatcherBuilder(Function<? super IN, ? extends OUT> function) {
     this.function = function;
-    this.predicates = new LinkedList<>();
+    this.checks = null;
   }
 
   @SuppressWarnings("unchecked")
   @Override
   public SELF check(Predicate<? super OUT> predicate) {
-    this.predicates.add(predicate);
-    return (SELF) this;
+    ObjectMatcherBuilder<IN, OUT, SELF> ret = this.copy();
+    ret.checks = new Checks<>(predicate, this.checks);
+    return (SELF) ret;
   }
 
   @Override
@@ -49,6 +61,17 @@ public abstract class ObjectMatcherBuilder<IN, OUT, SELF extends ObjectMatcherBu
     return this.check(Predicates.isInstanceOf(value));
   }
 
+  /**
+   * Returns a template that shares the function and the predicates given to this
+   * builder so far, to which predicates depending on expected values are added.
+   *
+   * @return A template of a matcher.
+   * @see MatcherTemplate
+   */
+  public MatcherTemplate.Nullary<IN, OUT> template() {
+    return new MatcherTemplate.Nullary<>(this.function, predicates());
+  }
+
   @Override
   public Matcher<? super IN> all() {
     return matcher(Op.AND);
@@ -60,11 +83,38 @@ public abstract class ObjectMatcherBuilder<IN, OUT, SELF extends ObjectMatcherBu
   }
 
   private Matcher<? super IN> matcher(Op op) {
+    List<Predicate<? super OUT>> predicates = predicates();
     if (predicates.isEmpty())
       predicates.add(alwaysTrue());
     return (predicates.size() == 1) ?
         Matcher.Leaf.create(predicates.get(0), this.function) :
         Objects.requireNonNull(op).create(predicates, this.function);
   }
+
+  private List<Predicate<? super OUT>> predicates() {
+    LinkedList<Predicate<? super OUT>> ret = new LinkedList<>();
+    for (Checks<OUT> i = this.checks; i != null; i = i.previous)
+      ret.addFirst(i.predicate);
+    return ret;
+  }
+
+  @SuppressWarnings("unchecked")
+  private ObjectMatcherBuilder<IN, OUT, SELF> copy() {
+    try {
+      return (ObjectMatcherBuilder<IN, OUT, SELF>) super.clone();
+    } catch (CloneNotSupportedException e) {
+      throw new AssertionError(e);
+    }
+  }
+
+  private static class Checks<OUT> {
+    final Predicate<? super OUT> predicate;
+    final Checks<OUT>            previous;
+
+    Checks(Predicate<? super OUT> predicate, Checks<OUT> previous) {
+      this.predicate = predicate;
+      this.previous = previous;
+    }
+  }
 }
 
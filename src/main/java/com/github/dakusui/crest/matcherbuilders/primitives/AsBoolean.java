@@ -11,12 +11,10 @@ public class AsBoolean<IN> extends ObjectMatcherBuilder<IN, Boolean, AsBoolean<I
   }
 
   public AsBoolean<? super IN> isTrue() {
-    this.check(Predicates.isTrue());
-    return this;
+    return this.check(Predicates.isTrue());
   }
 
   public AsBoolean<? super IN> isFalse() {
-    this.check(Predicates.isFalse());
-    return this;
+    return this.check(Predicates.isFalse());
   }
 }
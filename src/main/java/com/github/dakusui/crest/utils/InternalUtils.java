@@ -1,6 +1,7 @@
 package com.github.dakusui.crest.utils;
 
 import com.github.dakusui.crest.core.Call.Arg;
+import com.github.dakusui.crest.core.FlightRecording;
 import com.github.dakusui.crest.core.MethodSelector;
 import com.github.dakusui.crest.core.Report;
 import com.github.dakusui.crest.core.TrivialFunction;
@@ -10,6 +11,7 @@ import java.lang.reflect.Array;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
@@ -37,6 +39,13 @@ public enum InternalUtils {
 
   private static final List<Class<? extends Error>> BLACKLISTED_ERROR_TYPES = asList(OutOfMemoryError.class, StackOverflowError.class);
 
+  private static final ClassValue<Map<MethodKey, Method>> METHOD_CACHE = new ClassValue<Map<MethodKey, Method>>() {
+    @Override
+    protected Map<MethodKey, Method> computeValue(Class<?> type) {
+      return new ConcurrentHashMap<>();
+    }
+  };
+
   /**
    * Tries to find a method whose name is {@code methodName} from a given class {@code aClass}
    * and that can be invoked with parameter values {@code args}.
@@ -56,6 +65,17 @@ public enum InternalUtils {
    * @return A method for given class {@code aClass}, {@code method}, and {@code args}.
    */
   public static Method findMethod(Class<?> aClass, String methodName, Object[] args) {
+    if (!FlightRecording.ENABLED)
+      return searchMethod(aClass, methodName, args);
+    long before = System.nanoTime();
+    try {
+      return searchMethod(aClass, methodName, args);
+    } finally {
+      FlightRecording.methodResolved(aClass, methodName, System.nanoTime() - before);
+    }
+  }
+
+  private static Method searchMethod(Class<?> aClass, String methodName, Object[] args) {
     MethodSelector methodSelector = new MethodSelector.Default()
         .andThen(new MethodSelector.PreferNarrower())
         .andThen(new MethodSelector.PreferExact());
@@ -81,6 +101,20 @@ public enum InternalUtils {
     );
   }
 
+  /*
+   * Same as findMethod, but the returned method is already made accessible and
+   * cached for the class, the name, and the types of the arguments, on which
+   * the result of the search solely depends. Since the method is shared by
+   * the callers, it must not be returned to users.
+   */
+  private static Method findAccessibleMethod(Class<?> aClass, String methodName, Object[] args) {
+    return METHOD_CACHE.get(aClass).computeIfAbsent(new MethodKey(methodName, args), key -> {
+      Method ret = findMethod(aClass, methodName, args);
+      ret.setAccessible(true);
+      return ret;
+    });
+  }
+
   /*
    * Based on BaseDescription#appendValue() of Hamcrest
    *
@@ -150,14 +184,8 @@ public enum InternalUtils {
   @SuppressWarnings("unchecked")
   public static <R> R invokeMethod(Object target, String methodName, Object[] args) {
     try {
-      Method m = findMethod(Objects.requireNonNull(target).getClass(), methodName, replaceTargetInArray(target, args));
-      boolean accessible = m.isAccessible();
-      try {
-        m.setAccessible(true);
-        return (R) m.invoke(target, replaceTargetInArray(target, replaceArgInArray(args)));
-      } finally {
-        m.setAccessible(accessible);
-      }
+      Method m = findAccessibleMethod(Objects.requireNonNull(target).getClass(), methodName, replaceTargetInArray(target, args));
+      return (R) m.invoke(target, replaceTargetInArray(target, replaceArgInArray(args)));
     } catch (IllegalAccessException e) {
       throw new RuntimeException(e);
     } catch (InvocationTargetException e) {
@@ -168,14 +196,8 @@ public enum InternalUtils {
   @SuppressWarnings("unchecked")
   public static <R> R invokeStaticMethod(Class<?> klass, Object target, String methodName, Object[] args) {
     try {
-      Method m = findMethod(Objects.requireNonNull(klass), methodName, replaceTargetInArray(target, args));
-      boolean accessible = m.isAccessible();
-      try {
-        m.setAccessible(true);
-        return (R) m.invoke(null, replaceTargetInArray(target, replaceArgInArray(args)));
-      } finally {
-        m.setAccessible(accessible);
-      }
+      Method m = findAccessibleMethod(Objects.requireNonNull(klass), methodName, replaceTargetInArray(target, args));
+      return (R) m.invoke(null, replaceTargetInArray(target, replaceArgInArray(args)));
     } catch (IllegalAccessException e) {
       throw new RuntimeException(e);
     } catch (InvocationTargetException e) {
@@ -383,4 +405,35 @@ public enum InternalUtils {
       throw (Error) exception;
     throw new RuntimeException(exception);
   }
+
+  /*
+   * A key of a method search. An argument given as an Arg is distinguished from
+   * a value of the same class, since it makes the search prefer an exact match.
+   */
+  private static class MethodKey {
+    private final String   methodName;
+    private final Object[] argTypes;
+
+    MethodKey(String methodName, Object[] args) {
+      this.methodName = methodName;
+      this.argTypes = new Object[args.length];
+      for (int i = 0; i < args.length; i++)
+        this.argTypes[i] = args[i] instanceof Arg
+            ? Collections.singletonList(((Arg<?>) args[i]).type())
+            : toClass(args[i]);
+    }
+
+    @Override
+    public int hashCode() {
+      return methodName.hashCode() * 31 + Arrays.hashCode(argTypes);
+    }
+
+    @Override
+    public boolean equals(Object anotherObject) {
+      if (!(anotherObject instanceof MethodKey))
+        return false;
+      MethodKey another = (MethodKey) anotherObject;
+      return methodName.equals(another.methodName) && Arrays.equals(argTypes, another.argTypes);
+    }
+  }
 }
@@ -0,0 +1,49 @@
+package com.github.dakusui.crest.core;
+
+/**
+ * Identifies the code that performs an assertion, i.e., the innermost frame of
+ * the current stack outside this library and the JDK.
+ * <p>
+ * This is the version for Java 11 and later in the multi-release jar, which
+ * walks frames lazily with a shared {@link StackWalker} and stops at the first
+ * one outside this library.
+ */
+public enum CallSites {
+  ;
+
+  private static final StackWalker WALKER = StackWalker.getInstance();
+
+  private static final String[] INTERNAL_PREFIXES = {
+      "com.github.dakusui.crest.Crest",
+      "com.github.dakusui.crest.core.",
+      "com.github.dakusui.crest.matcherbuilders.",
+      "com.github.dakusui.crest.utils.",
+      "com.github.dakusui.thincrest_pcond.",
+      "java.",
+      "jdk.",
+      "sun.",
+  };
+
+  public static String caller() {
+    return frame().toString();
+  }
+
+  /*
+   * Reads the class, the method, and the line number of the frame directly, so
+   * that no StackTraceElement is created.
+   */
+  static CallSite frame() {
+    return WALKER.walk(frames -> frames
+        .filter(each -> !isInternal(each.getClassName()))
+        .findFirst()
+        .map(each -> new CallSite(each.getClassName(), each.getMethodName(), each.getFileName(), each.getLineNumber()))
+        .orElse(CallSite.UNKNOWN));
+  }
+
+  static boolean isInternal(String className) {
+    for (String each : INTERNAL_PREFIXES)
+      if (className.startsWith(each))
+        return true;
+    return false;
+  }
+}
@@ -0,0 +1,189 @@
+package com.github.dakusui.crest.core;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Emits Java Flight Recorder events for assertions, functions, predicates, report
+ * rendering, and reflective method resolution.
+ * <p>
+ * This is the version for Java 11 and later in the multi-release jar. See the
+ * one for Java 8 for the contract.
+ */
+public enum FlightRecording {
+  ;
+
+  public static final boolean ENABLED = Boolean.getBoolean("thincrest.jfr");
+
+  public static boolean enabled() {
+    return ENABLED;
+  }
+
+  static void install() {
+    if (ENABLED)
+      SessionListener.install(new Listener());
+  }
+
+  public static void methodResolved(Class<?> declaringClass, String methodName, long elapsedNanos) {
+    MethodResolutionEvent event = new MethodResolutionEvent();
+    if (!event.shouldCommit())
+      return;
+    event.declaringClass = declaringClass;
+    event.methodName = methodName;
+    event.elapsed = elapsedNanos;
+    event.commit();
+  }
+
+  @Name("com.github.dakusui.thincrest.Assertion")
+  @Label("Assertion")
+  @Category("thincrest")
+  @Enabled(false)
+  @Description("Evaluation of a matcher, including rendering of its report")
+  static class AssertionEvent extends Event {
+    @Label("Matcher")
+    String matcher;
+
+    @Label("Value Type")
+    Class<?> valueType;
+
+    @Label("Passed")
+    boolean passed;
+  }
+
+  @Name("com.github.dakusui.thincrest.Function")
+  @Label("Function")
+  @Category("thincrest")
+  @Enabled(false)
+  @Description("Application of a function in a matcher")
+  @StackTrace(false)
+  static class FunctionEvent extends Event {
+    @Label("Function")
+    String function;
+
+    @Label("Elapsed")
+    @Timespan(Timespan.NANOSECONDS)
+    long elapsed;
+
+    @Label("Failed")
+    boolean failed;
+  }
+
+  @Name("com.github.dakusui.thincrest.Predicate")
+  @Label("Predicate")
+  @Category("thincrest")
+  @Enabled(false)
+  @Description("Test of a predicate in a matcher")
+  @StackTrace(false)
+  static class PredicateEvent extends Event {
+    @Label("Predicate")
+    String predicate;
+
+    @Label("Elapsed")
+    @Timespan(Timespan.NANOSECONDS)
+    long elapsed;
+
+    @Label("Failed")
+    boolean failed;
+  }
+
+  @Name("com.github.dakusui.thincrest.ReportRendering")
+  @Label("Report Rendering")
+  @Category("thincrest")
+  @Enabled(false)
+  @Description("Rendering of a report of a failed assertion")
+  @StackTrace(false)
+  static class ReportRenderingEvent extends Event {
+    @Label("Elapsed")
+    @Timespan(Timespan.NANOSECONDS)
+    long elapsed;
+  }
+
+  @Name("com.github.dakusui.thincrest.MethodResolution")
+  @Label("Method Resolution")
+  @Category("thincrest")
+  @Enabled(false)
+  @Description("Reflective search of a method called by a matcher")
+  static class MethodResolutionEvent extends Event {
+    @Label("Declaring Class")
+    Class<?> declaringClass;
+
+    @Label("Method Name")
+    String methodName;
+
+    @Label("Elapsed")
+    @Timespan(Timespan.NANOSECONDS)
+    long elapsed;
+  }
+
+  /*
+   * Functions and predicates are reported with the time measured by sessions,
+   * since they are notified only after their evaluations. Assertions are
+   * reported as duration events, begun and ended on the thread performing them.
+   */
+  private static class Listener implements SessionListener {
+    private final ThreadLocal<Deque<AssertionEvent>> assertions = ThreadLocal.withInitial(ArrayDeque::new);
+
+    @Override
+    public void assertionStarted(String message, Object value, Matcher<?> matcher) {
+      AssertionEvent event = new AssertionEvent();
+      event.begin();
+      assertions.get().push(event);
+    }
+
+    @Override
+    public void assertionFinished(String message, Object value, Matcher<?> matcher, boolean passed, long elapsedNanos) {
+      AssertionEvent event = assertions.get().poll();
+      if (event == null)
+        return;
+      event.end();
+      if (!event.shouldCommit())
+        return;
+      event.matcher = String.valueOf(matcher);
+      event.valueType = value == null ? null : value.getClass();
+      event.passed = passed;
+      event.commit();
+    }
+
+    @Override
+    public void functionApplied(Function<?, ?> function, long elapsedNanos, boolean failed) {
+      FunctionEvent event = new FunctionEvent();
+      if (!event.shouldCommit())
+        return;
+      event.function = String.valueOf(function);
+      event.elapsed = elapsedNanos;
+      event.failed = failed;
+      event.commit();
+    }
+
+    @Override
+    public void predicateTested(Predicate<?> predicate, long elapsedNanos, boolean failed) {
+      PredicateEvent event = new PredicateEvent();
+      if (!event.shouldCommit())
+        return;
+      event.predicate = String.valueOf(predicate);
+      event.elapsed = elapsedNanos;
+      event.failed = failed;
+      event.commit();
+    }
+
+    @Override
+    public void reportRendered(long elapsedNanos) {
+      ReportRenderingEvent event = new ReportRenderingEvent();
+      if (!event.shouldCommit())
+        return;
+      event.elapsed = elapsedNanos;
+      event.commit();
+    }
+  }
+}
@@ -0,0 +1,214 @@
+package com.github.dakusui.crest.ut;
+
+import com.github.dakusui.crest.Crest;
+import com.github.dakusui.crest.core.AsyncVerifier;
+import com.github.dakusui.crest.core.Matcher;
+import com.github.dakusui.crest.core.Report;
+import com.github.dakusui.crest.utils.TestBase;
+import org.junit.After;
+import org.junit.Test;
+import org.opentest4j.AssertionFailedError;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.github.dakusui.crest.Crest.predicate;
+import static java.util.Arrays.asList;
+import static org.junit.Assert.*;
+
+public class AsyncVerifierTest extends TestBase {
+  private final List<Integer> examined = Collections.synchronizedList(new ArrayList<>());
+  private final List<Report>  reports  = Collections.synchronizedList(new ArrayList<>());
+  private final CountDownLatch started = new CountDownLatch(1);
+  private final CountDownLatch gate    = new CountDownLatch(1);
+
+  private AsyncVerifier verifier;
+
+  @After
+  public void tearDown() {
+    gate.countDown();
+    if (verifier != null)
+      verifier.close();
+  }
+
+  /**
+   * A matcher satisfied by non-negative values, which blocks on the first value
+   * until the gate is opened.
+   */
+  @SuppressWarnings("unchecked")
+  private Matcher<Integer> nonNegative() {
+    return (Matcher<Integer>) Crest.<Integer>asInteger().check(predicate("nonNegative", v -> {
+      examined.add(v);
+      started.countDown();
+      try {
+        gate.await();
+      } catch (InterruptedException e) {
+        throw new RuntimeException(e);
+      }
+      return v >= 0;
+    })).$();
+  }
+
+  private AsyncVerifier create(AsyncVerifier.Policy policy) {
+    return this.verifier = AsyncVerifier.create(policy, (message, value, report) -> reports.add(report));
+  }
+
+  @Test
+  public void givenValues$whenSubmit$thenOnlyFailuresAreReported() throws InterruptedException {
+    AsyncVerifier verifier = create(AsyncVerifier.Policy.defaultPolicy().withWorkers(2));
+    gate.countDown();
+    for (int i = -2; i < 3; i++)
+      assertTrue(verifier.submit("value", i, nonNegative()));
+
+    assertTrue(verifier.awaitIdle(Duration.ofSeconds(10)));
+    assertEquals(5, verifier.submitted());
+    assertEquals(5, verifier.verified());
+    assertEquals(2, verifier.failed());
+    assertEquals(0, verifier.queueDepth());
+    assertEquals(2, reports.size());
+    reports.forEach(r -> assertTrue(r.mismatch().contains("nonNegative")));
+  }
+
+  @Test
+  public void givenDropNewest$whenQueueIsFull$thenNewValuesAreDropped() throws InterruptedException {
+    AsyncVerifier verifier = create(AsyncVerifier.Policy.defaultPolicy().withCapacity(2));
+    Matcher<Integer> matcher = nonNegative();
+    verifier.submit("value", 0, matcher);
+    started.await();
+    for (int i = 1; i < 5; i++)
+      verifier.submit("value", i, matcher);
+    assertEquals(2, verifier.queueDepth());
+    gate.countDown();
+
+    assertTrue(verifier.awaitIdle(Duration.ofSeconds(10)));
+    assertEquals(asList(0, 1, 2), examined);
+    assertEquals(2, verifier.dropped());
+  }
+
+  @Test
+  public void givenDropOldest$whenQueueIsFull$thenOldestValuesAreDropped() throws InterruptedException {
+    AsyncVerifier verifier = create(AsyncVerifier.Policy.defaultPolicy().withCapacity(2).withOverflow(AsyncVerifier.Overflow.DROP_OLDEST));
+    Matcher<Integer> matcher = nonNegative();
+    verifier.submit("value", 0, matcher);
+    started.await();
+    for (int i = 1; i < 5; i++)
+      assertTrue(verifier.submit("value", i, matcher));
+    gate.countDown();
+
+    assertTrue(verifier.awaitIdle(Duration.ofSeconds(10)));
+    assertEquals(asList(0, 3, 4), examined);
+    assertEquals(2, verifier.dropped());
+    assertTrue(verifier.maxLag().toNanos() > 0);
+  }
+
+  @Test(timeout = 10_000)
+  public void givenBlock$whenQueueIsFull$thenCallerWaitsForRoom() throws InterruptedException {
+    AsyncVerifier verifier = create(AsyncVerifier.Policy.defaultPolicy().withCapacity(1).withOverflow(AsyncVerifier.Overflow.BLOCK));
+    Matcher<Integer> matcher = nonNegative();
+    verifier.submit("value", 0, matcher);
+    started.await();
+    verifier.submit("value", 1, matcher);
+    Thread submitter = new Thread(() -> verifier.submit("value", 2, matcher));
+    submitter.start();
+    submitter.join(100);
+    assertTrue(submitter.isAlive());
+    gate.countDown();
+    submitter.join();
+
+    assertTrue(verifier.awaitIdle(Duration.ofSeconds(10)));
+    assertEquals(asList(0, 1, 2), examined);
+    assertEquals(0, verifier.dropped());
+  }
+
+  @Test
+  public void givenClosed$whenSubmit$thenDropped() {
+    AsyncVerifier verifier = create(AsyncVerifier.Policy.defaultPolicy());
+    verifier.close();
+
+    assertFalse(verifier.submit("value", 0, nonNegative()));
+    assertEquals(1, verifier.dropped());
+  }
+
+  @Test(timeout = 10_000)
+  public void givenDropOldestWithCapacityOne$whenQueueIsFull$thenOldestIsReplacedWithoutWaiting() throws InterruptedException {
+    AsyncVerifier verifier = create(AsyncVerifier.Policy.defaultPolicy().withCapacity(1).withOverflow(AsyncVerifier.Overflow.DROP_OLDEST));
+    Matcher<Integer> matcher = nonNegative();
+    verifier.submit("value", 0, matcher);
+    started.await();
+
+    assertTrue(verifier.submit("value", 1, matcher));
+    assertTrue(verifier.submit("value", 2, matcher));
+    assertEquals(1, verifier.dropped());
+    assertEquals(1, verifier.queueDepth());
+    gate.countDown();
+    assertTrue(verifier.awaitIdle(Duration.ofSeconds(10)));
+    assertEquals(asList(0, 2), examined);
+  }
+
+  @Test(timeout = 10_000)
+  public void givenValueBeingExamined$whenAwaitIdle$thenSubmittersAreNotDropped() throws InterruptedException {
+    AsyncVerifier verifier = create(AsyncVerifier.Policy.defaultPolicy().withCapacity(1));
+    Matcher<Integer> matcher = nonNegative();
+    verifier.submit("value", 0, matcher);
+    started.await();
+
+    assertFalse(verifier.awaitIdle(Duration.ofMillis(10)));
+    assertTrue(verifier.submit("value", 1, matcher));
+    assertEquals(0, verifier.dropped());
+    gate.countDown();
+    assertTrue(verifier.awaitIdle(Duration.ofSeconds(10)));
+    assertEquals(asList(0, 1), examined);
+  }
+
+  @Test(timeout = 20_000)
+  public void givenSubmittersRunning$whenClose$thenEverythingAcceptedIsVerified() throws InterruptedException {
+    AsyncVerifier verifier = create(AsyncVerifier.Policy.defaultPolicy().withCapacity(16).withOverflow(AsyncVerifier.Overflow.BLOCK));
+    @SuppressWarnings("unchecked") Matcher<Integer> matcher = (Matcher<Integer>) Crest.<Integer>asInteger().ge(0).$();
+    CountDownLatch submitting = new CountDownLatch(4);
+    List<Thread> submitters = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      Thread submitter = new Thread(() -> {
+        submitting.countDown();
+        for (int j = 0; j < 10_000; j++)
+          verifier.submit("value", j, matcher);
+      });
+      submitter.start();
+      submitters.add(submitter);
+    }
+    submitting.await();
+    verifier.close();
+    for (Thread each : submitters)
+      each.join();
+
+    assertTrue(verifier.awaitIdle(Duration.ofSeconds(10)));
+    assertEquals(verifier.submitted(), verifier.verified());
+    assertEquals(40_000, verifier.submitted() + verifier.dropped());
+  }
+
+  @Test(timeout = 10_000)
+  public void givenUncaughtListener$whenValueFails$thenAssertionFailedErrorIsHandedToHandler() throws InterruptedException {
+    Thread.UncaughtExceptionHandler saved = Thread.getDefaultUncaughtExceptionHandler();
+    AtomicReference<Throwable> caught = new AtomicReference<>();
+    CountDownLatch handled = new CountDownLatch(1);
+    Thread.setDefaultUncaughtExceptionHandler((t, e) -> {
+      caught.set(e);
+      handled.countDown();
+    });
+    try {
+      this.verifier = AsyncVerifier.create(AsyncVerifier.Policy.defaultPolicy(), AsyncVerifier.Listener.UNCAUGHT);
+      gate.countDown();
+      verifier.submit("negative", -1, nonNegative());
+      handled.await();
+    } finally {
+      Thread.setDefaultUncaughtExceptionHandler(saved);
+    }
+
+    assertTrue(caught.get() instanceof AssertionFailedError);
+    assertEquals("negative", caught.get().getMessage());
+    assertEquals(1, verifier.failed());
+  }
+}
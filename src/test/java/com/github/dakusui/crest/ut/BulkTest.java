@@ -0,0 +1,79 @@
+package com.github.dakusui.crest.ut;
+
+import com.github.dakusui.crest.core.Bulk;
+import com.github.dakusui.crest.core.ExecutionFailure;
+import com.github.dakusui.crest.core.Matcher;
+import com.github.dakusui.crest.utils.TestBase;
+import org.junit.Test;
+import org.opentest4j.AssertionFailedError;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static com.github.dakusui.crest.Crest.*;
+import static java.util.Arrays.asList;
+import static org.junit.Assert.*;
+
+public class BulkTest extends TestBase {
+  private static final List<Integer> VALUES = IntStream.range(0, 10_000).boxed().collect(Collectors.toList());
+
+  @SuppressWarnings("unchecked")
+  private static final Matcher<Integer> NOT_MULTIPLE_OF_1000 = (Matcher<Integer>) asInteger().check(predicate("notMultipleOf1000", (Integer i) -> i == 0 || i % 1000 != 0)).$();
+
+  @Test
+  public void givenAllPassing$whenAssertAll$thenPasses() {
+    assertAll(VALUES, asInteger().ge(0).lt(10_000).$());
+  }
+
+  @Test
+  public void givenSomeFailing$whenVerifiedWithCollectAll$thenAllFailuresReportedInOrder() {
+    Bulk.BulkReport report = Bulk.verify(VALUES.spliterator(), NOT_MULTIPLE_OF_1000, Bulk.Policy.collectAll().withBatchSize(100));
+
+    assertFalse(report.isSuccessful());
+    assertEquals(VALUES.size(), report.examined());
+    assertEquals(
+        asList(1000L, 2000L, 3000L, 4000L, 5000L, 6000L, 7000L, 8000L, 9000L),
+        report.failures().stream().map(Bulk.Failure::index).collect(Collectors.toList())
+    );
+    assertTrue(report.mismatch().contains("[9000] x=<9000>"));
+  }
+
+  @Test
+  public void givenSomeFailing$whenVerifiedWithCollectN$thenAtMostNFailuresReported() {
+    Bulk.BulkReport report = Bulk.verify(VALUES.spliterator(), NOT_MULTIPLE_OF_1000, Bulk.Policy.collect(3).withBatchSize(100));
+
+    assertFalse(report.isSuccessful());
+    assertEquals(3, report.failures().size());
+  }
+
+  @Test
+  public void givenSomeFailing$whenVerifiedWithFailFast$thenStopsEarly() {
+    Bulk.BulkReport report = Bulk.verify(
+        VALUES.spliterator(),
+        NOT_MULTIPLE_OF_1000,
+        Bulk.Policy.failFast().withBatchSize(10).withPool(new ForkJoinPool(1))
+    );
+
+    assertEquals(1, report.failures().size());
+    assertEquals(1000L, report.failures().get(0).index());
+    assertTrue(report.examined() < VALUES.size());
+  }
+
+  @Test
+  public void givenUnsizedStream$whenAssertAll$thenIndicesAreCorrect() {
+    try {
+      assertAll(Stream.iterate(0, i -> i + 1).limit(1500), NOT_MULTIPLE_OF_1000);
+      fail();
+    } catch (AssertionFailedError e) {
+      assertTrue(String.valueOf(e.getActual().getValue()).contains("[1000] x=<1000>"));
+    }
+  }
+
+  @Test(expected = ExecutionFailure.class)
+  public void givenThrowingMatcher$whenAssertAll$thenExecutionFailure() {
+    assertAll(asList("a", "b", null), asInteger(function("length", (String s) -> s.length())).gt(0).$());
+  }
+}
@@ -0,0 +1,111 @@
+package com.github.dakusui.crest.ut;
+
+import com.github.dakusui.crest.Crest;
+import com.github.dakusui.crest.core.CallSiteStatistics;
+import com.github.dakusui.crest.core.ExecutionFailure;
+import com.github.dakusui.crest.core.Matcher;
+import com.github.dakusui.crest.core.SessionListener;
+import com.github.dakusui.crest.utils.TestBase;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+import static com.github.dakusui.crest.Crest.requireThat;
+import static org.junit.Assert.*;
+
+public class CallSiteStatisticsTest extends TestBase {
+  @SuppressWarnings("unchecked")
+  private static final Matcher<String> GREETING = (Matcher<String>) Crest.<String>asString().startsWith("h").$();
+
+  private final CallSiteStatistics statistics = new CallSiteStatistics();
+
+  @Before
+  public void install() {
+    SessionListener.install(statistics);
+  }
+
+  @After
+  public void uninstall() {
+    SessionListener.uninstall(statistics);
+  }
+
+  private static void require(String message, String value) {
+    try {
+      requireThat(message, value, GREETING);
+    } catch (ExecutionFailure ignored) {
+    }
+  }
+
+  @Test
+  public void givenMessages$whenRequireThatAtSameLine$thenAggregatedIntoOneCallSite() {
+    for (int i = 0; i < 10; i++)
+      require("greeting-" + i, i % 5 == 0 ? "bye" : "hello");
+
+    List<CallSiteStatistics.Snapshot> snapshot = statistics.snapshot();
+    snapshot.forEach(System.out::println);
+    assertEquals(1, snapshot.size());
+    assertTrue(snapshot.get(0).getCallSite().startsWith(CallSiteStatisticsTest.class.getName() + ".require("));
+    assertEquals(10, snapshot.get(0).getEvaluations());
+    assertEquals(2, snapshot.get(0).getFailures());
+    assertTrue(snapshot.get(0).getP50Nanos() <= snapshot.get(0).getP99Nanos());
+    assertTrue(snapshot.get(0).getP99Nanos() <= snapshot.get(0).getMaxNanos());
+    assertEquals(10, statistics.getEvaluations());
+    assertEquals(2, statistics.getFailures());
+  }
+
+  @Test
+  public void givenCallSitesBeyondCap$whenRequireThat$thenAggregatedIntoOthers() {
+    CallSiteStatistics statistics = new CallSiteStatistics(1);
+    SessionListener.install(statistics);
+    try {
+      requireThat("hello", GREETING);
+      requireThat("hello", GREETING);
+      requireThat("hello", GREETING);
+    } finally {
+      SessionListener.uninstall(statistics);
+    }
+
+    List<CallSiteStatistics.Snapshot> snapshot = statistics.snapshot();
+    System.out.println(snapshot);
+    assertEquals(2, snapshot.size());
+    assertEquals("(others)", snapshot.get(0).getCallSite());
+    assertEquals(2, snapshot.get(0).getEvaluations());
+    assertEquals(1, snapshot.get(1).getEvaluations());
+  }
+
+  @Test
+  public void givenNoMessage$whenRequireThat$thenIdentifiedByCaller() {
+    requireThat("hello", GREETING);
+
+    List<CallSiteStatistics.Snapshot> snapshot = statistics.snapshot();
+    System.out.println(snapshot);
+    assertEquals(1, snapshot.size());
+    assertTrue(snapshot.get(0).getCallSite().startsWith(
+        CallSiteStatisticsTest.class.getName() + ".givenNoMessage$whenRequireThat$thenIdentifiedByCaller("));
+  }
+
+  @Test
+  public void givenEnabled$whenRequireThat$thenExposedThroughMXBean() throws Exception {
+    CallSiteStatistics.enable();
+    try {
+      CallSiteStatistics.global().reset();
+      require("mxbean", "hello");
+      MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+      ObjectName name = new ObjectName(CallSiteStatistics.OBJECT_NAME);
+
+      assertEquals(1L, server.getAttribute(name, "Evaluations"));
+      CompositeData[] callSites = (CompositeData[]) server.getAttribute(name, "CallSites");
+      assertEquals(1, callSites.length);
+      assertTrue(((String) callSites[0].get("callSite")).startsWith(CallSiteStatisticsTest.class.getName() + ".require("));
+    } finally {
+      CallSiteStatistics.disable();
+    }
+    assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(new ObjectName(CallSiteStatistics.OBJECT_NAME)));
+  }
+}
@@ -0,0 +1,164 @@
+package com.github.dakusui.crest.ut;
+
+import com.github.dakusui.crest.core.ChainedFunction;
+import com.github.dakusui.crest.core.CompiledMatcher;
+import com.github.dakusui.crest.core.Matcher;
+import com.github.dakusui.crest.core.Report;
+import com.github.dakusui.crest.core.Session;
+import com.github.dakusui.crest.utils.TestBase;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static com.github.dakusui.crest.Crest.*;
+import static org.junit.Assert.*;
+
+public class CompiledMatcherTest extends TestBase {
+  @SuppressWarnings("unchecked")
+  private static final List<Matcher<String>> MATCHERS = Arrays.asList(
+      stringMatcher(asString().startsWith("h").$()),
+      stringMatcher(asString().startsWith("H").$()),
+      stringMatcher(asInteger("length").gt(3).lt(10).$()),
+      allOf(asString().startsWith("h").$(), asInteger("length").gt(10).$()),
+      anyOf(asString().startsWith("H").$(), asInteger("length").eq(5).$()),
+      not(asString().containsString("x").$()),
+      noneOf(asString().startsWith("H").$(), asString().endsWith("O").$()),
+      allOf(
+          anyOf(asString().startsWith("H").$(), not(asString().isEmpty().$())),
+          noneOf(asInteger("length").lt(0).$())
+      ),
+      stringMatcher(asString(function("throw", (String s) -> {
+        throw new IllegalStateException(s);
+      })).isEmpty().$()),
+      anyOf(
+          asString().startsWith("h").$(),
+          asString(function("throw", (String s) -> {
+            throw new IllegalStateException(s);
+          })).isEmpty().$()
+      )
+  );
+
+  @Test
+  public void givenVariousMatchers$whenTested$thenSameResultsAsSources() {
+    for (Matcher<String> each : MATCHERS)
+      for (String value : Arrays.asList("hello", "Hello", "", "hello, world")) {
+        CompiledMatcher<String> compiled = each.compile();
+        assertEquals(
+            String.format("matcher:%s, value:%s", each, value),
+            Session.perform(value, each).isSuccessful(),
+            compiled.test(value)
+        );
+      }
+  }
+
+  @Test
+  public void givenVariousMatchers$whenTestedWithoutSession$thenSameResultsAsSources() {
+    for (Matcher<String> each : MATCHERS)
+      for (String value : Arrays.asList("hello", "Hello", "", "hello, world"))
+        assertEquals(
+            String.format("matcher:%s, value:%s", each, value),
+            Session.perform(value, each).isSuccessful(),
+            each.test(value)
+        );
+  }
+
+  @Test
+  public void givenMatcherAsPredicate$whenFilteringParallelStream$thenSameAsSequentialLoop() {
+    List<String> values = IntStream.range(0, 10_000).mapToObj(i -> (i % 3 == 0 ? "h" : "H") + i).collect(Collectors.toList());
+    Matcher<String> matcher = allOf(
+        asString().startsWith("h").$(),
+        asInteger("length").gt(2).$()
+    );
+    List<String> expected = new ArrayList<>();
+    for (String each : values)
+      if (each.startsWith("h") && each.length() > 2)
+        expected.add(each);
+
+    assertEquals(expected, values.parallelStream().filter(matcher.asPredicate()).collect(Collectors.toList()));
+  }
+
+  @Test
+  public void givenFailingMatcher$whenPerformed$thenSameReportAsSource() {
+    for (Matcher<String> each : MATCHERS) {
+      Report expected = Session.perform("hello", each);
+      Report actual = Session.perform("hello", each.compile());
+      assertEquals(expected.isSuccessful(), actual.isSuccessful());
+      assertEquals(expected.expectation(), actual.expectation());
+      assertEquals(expected.mismatch(), actual.mismatch());
+    }
+  }
+
+  @Test
+  public void givenChainedFunction$whenTested$thenEachStepEvaluatedOnce() {
+    AtomicInteger counter = new AtomicInteger(0);
+    CompiledMatcher<String> compiled = stringMatcher(asString(
+        ChainedFunction.create(function("count", (String s) -> {
+          counter.incrementAndGet();
+          return s;
+        })).andThen((String s) -> s.toUpperCase()).andThen(s -> s.substring(1))
+    ).equalTo("ELLO").$()).compile();
+
+    assertTrue(compiled.test("hello"));
+    assertFalse(compiled.test("world"));
+    assertEquals(2, counter.get());
+  }
+
+  @Test
+  public void givenLeavesSharingFunction$whenTested$thenFunctionAppliedOnce() {
+    AtomicInteger counter = new AtomicInteger(0);
+    CompiledMatcher<String> compiled = stringMatcher(asInteger(function("count", (String s) -> {
+      counter.incrementAndGet();
+      return s.length();
+    })).gt(0).lt(10).$()).compile();
+
+    assertTrue(compiled.test("hello"));
+    assertEquals(1, counter.get());
+  }
+
+  @Test
+  public void givenFailingChildOfAnd$whenTested$thenRestNotEvaluated() {
+    AtomicInteger counter = new AtomicInteger(0);
+    Matcher<String> matcher = allOf(
+        asString().startsWith("H").$(),
+        asString(function("count", (String s) -> {
+          counter.incrementAndGet();
+          return s;
+        })).isEmpty().$()
+    );
+
+    assertFalse(matcher.compile().test("hello"));
+    assertEquals(0, counter.get());
+  }
+
+  @Test
+  public void givenDeeplyNestedMatcher$whenTested$thenSameResultAsSource() {
+    Matcher<String> matcher = stringMatcher(asString().startsWith("h").$());
+    for (int i = 0; i < 100; i++)
+      matcher = i % 2 == 0 ? not(matcher) : allOf(matcher, asString().isNotNull().$());
+
+    assertEquals(Session.perform("hello", matcher).isSuccessful(), matcher.compile().test("hello"));
+    assertEquals(Session.perform("world", matcher).isSuccessful(), matcher.compile().test("world"));
+  }
+
+  @Test
+  public void givenCompiledMatcher$whenCompiledAgain$thenSameObjectReturned() {
+    CompiledMatcher<String> compiled = stringMatcher(asString().isEmpty().$()).compile();
+
+    assertSame(compiled, compiled.compile());
+  }
+
+  @Test
+  public void givenCompiledMatcher$whenAssertedWithCrest$thenWorks() {
+    assertThat("hello", stringMatcher(asString().startsWith("h").$()).compile());
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Matcher<String> stringMatcher(Matcher<? super String> matcher) {
+    return (Matcher<String>) matcher;
+  }
+}
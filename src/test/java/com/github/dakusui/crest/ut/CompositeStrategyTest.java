@@ -0,0 +1,219 @@
+package com.github.dakusui.crest.ut;
+
+import com.github.dakusui.crest.core.Matcher;
+import com.github.dakusui.crest.core.Report;
+import com.github.dakusui.crest.core.Session;
+import com.github.dakusui.crest.utils.TestBase;
+import org.junit.Test;
+import org.opentest4j.AssertionFailedError;
+
+import java.util.LinkedList;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static com.github.dakusui.crest.Crest.*;
+import static com.github.dakusui.crest.core.Matcher.Composite.Strategy.EAGER;
+import static com.github.dakusui.crest.core.Matcher.Composite.Strategy.PARALLEL;
+import static com.github.dakusui.crest.core.Matcher.Composite.Strategy.SHORT_CIRCUIT;
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static org.junit.Assert.*;
+
+public class CompositeStrategyTest extends TestBase {
+  private final AtomicInteger counter = new AtomicInteger(0);
+
+  @SuppressWarnings("unchecked")
+  private Matcher<String> counting(boolean result) {
+    return (Matcher<String>) asString(function("count", (String s) -> {
+      counter.incrementAndGet();
+      return s;
+    })).check(predicate("always" + result, v -> result)).$();
+  }
+
+  @SuppressWarnings("unchecked")
+  private Matcher<String> throwing() {
+    return (Matcher<String>) asString(function("throw", (String s) -> {
+      throw new IllegalStateException(s);
+    })).isEmpty().$();
+  }
+
+  private static boolean matches(Matcher<String> matcher) {
+    return matcher.matches("hello", Session.create(), new LinkedList<>());
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  public void givenShortCircuitAllOf$whenFirstChildFails$thenRestNotEvaluated() {
+    assertFalse(matches(allOf(SHORT_CIRCUIT, counting(false), counting(true), counting(true))));
+    assertEquals(1, counter.get());
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  public void givenEagerAllOf$whenFirstChildFails$thenAllEvaluated() {
+    assertFalse(matches(allOf(EAGER, counting(false), counting(true), counting(true))));
+    assertEquals(3, counter.get());
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  public void givenShortCircuitAnyOf$whenFirstChildPasses$thenRestNotEvaluated() {
+    assertTrue(matches(anyOf(SHORT_CIRCUIT, counting(true), throwing())));
+    assertEquals(1, counter.get());
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  public void givenEagerAnyOf$whenLaterChildThrows$thenFails() {
+    assertFalse(matches(anyOf(counting(true), throwing())));
+  }
+
+  @Test
+  public void givenShortCircuitNoneOf$whenFirstChildPasses$thenRestNotEvaluated() {
+    assertFalse(matches(noneOf(SHORT_CIRCUIT, counting(true), counting(false))));
+    assertEquals(1, counter.get());
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  public void givenShortCircuitAllOf$whenFails$thenMismatchDescribesAllChildren() {
+    Matcher<String> eager = allOf(asString().startsWith("H").$(), asInteger("length").gt(10).$());
+    Matcher<String> shortCircuit = allOf(SHORT_CIRCUIT, asString().startsWith("H").$(), asInteger("length").gt(10).$());
+
+    Report expected = Session.perform("hello", eager);
+    Report actual = Session.perform("hello", shortCircuit);
+
+    System.out.println(actual.mismatch());
+    assertFalse(actual.isSuccessful());
+    assertEquals(expected.expectation(), actual.expectation());
+    assertEquals(expected.mismatch(), actual.mismatch());
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  public void givenShortCircuitAllOf$whenChildAfterFailingOneThrows$thenAssertionFailedError() {
+    try {
+      assertThat("hello", allOf(SHORT_CIRCUIT, counting(false), throwing()));
+      fail();
+    } catch (AssertionFailedError e) {
+      String mismatch = String.valueOf(e.getActual().getValue());
+      System.out.println(mismatch);
+      assertTrue(mismatch.contains("x->throw->isEmpty failed with java.lang.IllegalStateException"));
+      assertFalse(mismatch.contains("FAILED"));
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  public void givenShortCircuitMatcher$whenCompiled$thenRestNotEvaluated() {
+    Matcher<String> matcher = anyOf(
+        SHORT_CIRCUIT,
+        allOf(SHORT_CIRCUIT, counting(false), counting(true)),
+        noneOf(SHORT_CIRCUIT, counting(false), counting(false)),
+        throwing()
+    );
+
+    assertTrue(matcher.compile().test("hello"));
+    assertEquals(3, counter.get());
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Matcher<String> slow(long millis, boolean result) {
+    return (Matcher<String>) asString(function("sleep" + millis, (String s) -> {
+      try {
+        Thread.sleep(millis);
+      } catch (InterruptedException e) {
+        throw new RuntimeException(e);
+      }
+      return s;
+    })).check(predicate("always" + result, v -> result)).$();
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Matcher<String> throwingAfter(long millis, String message) {
+    return (Matcher<String>) asString(function("throwAfter" + millis, (String s) -> {
+      try {
+        Thread.sleep(millis);
+      } catch (InterruptedException e) {
+        throw new RuntimeException(e);
+      }
+      throw new IllegalStateException(message);
+    })).isEmpty().$();
+  }
+
+  /*
+   * Returns a matcher that is satisfied only when all the parties of 'barrier'
+   * reach it, i.e., only when they are evaluated at the same time. It gives up
+   * after a while only to keep a broken test from hanging.
+   */
+  @SuppressWarnings("unchecked")
+  private static Matcher<String> rendezvous(CyclicBarrier barrier) {
+    return (Matcher<String>) asString(function("await", (String s) -> {
+      try {
+        barrier.await(10, TimeUnit.SECONDS);
+      } catch (InterruptedException | BrokenBarrierException | TimeoutException e) {
+        throw new RuntimeException(e);
+      }
+      return s;
+    })).startsWith("h").$();
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  public void givenParallelAllOf$whenChildrenWaitForEachOther$thenEvaluatedConcurrently() {
+    CyclicBarrier barrier = new CyclicBarrier(4);
+
+    assertTrue(matches(allOf(PARALLEL, rendezvous(barrier), rendezvous(barrier), rendezvous(barrier), rendezvous(barrier))));
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  public void givenParallelAnyOf$whenChildrenThrow$thenExceptionsReportedInChildOrder() {
+    Report report = Session.perform(
+        "hello",
+        anyOf(PARALLEL, throwingAfter(300, "first"), throwingAfter(0, "second"), throwingAfter(100, "third")),
+        Session.create()
+    );
+
+    assertFalse(report.isSuccessful());
+    assertEquals(
+        asList("first", "second", "third"),
+        report.exceptions().stream().map(Throwable::getMessage).collect(Collectors.toList())
+    );
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  public void givenParallelAllOf$whenFails$thenSameReportAsEager() {
+    Matcher<String> eager = allOf(slow(10, true), asString().startsWith("H").$(), slow(0, false), asInteger("length").gt(10).$());
+    Matcher<String> parallel = allOf(PARALLEL, slow(10, true), asString().startsWith("H").$(), slow(0, false), asInteger("length").gt(10).$());
+
+    Report expected = Session.perform("hello", eager, Session.create());
+    Report actual = Session.perform("hello", parallel, Session.create());
+
+    assertFalse(actual.isSuccessful());
+    assertEquals(expected.expectation(), actual.expectation());
+    assertEquals(expected.mismatch(), actual.mismatch());
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  public void givenParallelComposites$whenNoChildren$thenIdentityResults() {
+    assertTrue(matches(Matcher.Conjunctive.create(PARALLEL, emptyList())));
+    assertFalse(matches(Matcher.Disjunctive.create(PARALLEL, emptyList())));
+    assertTrue(matches(noneOf(PARALLEL)));
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  public void givenParallelMatcher$whenCompiled$thenSameResult() {
+    Matcher<String> matcher = anyOf(PARALLEL, slow(0, false), allOf(PARALLEL, slow(0, true), asString().startsWith("h").$()));
+
+    assertTrue(matcher.compile().test("hello"));
+    assertFalse(matcher.compile().test("world"));
+  }
+}
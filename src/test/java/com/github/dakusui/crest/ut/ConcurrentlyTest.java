@@ -0,0 +1,76 @@
+package com.github.dakusui.crest.ut;
+
+import com.github.dakusui.crest.core.Concurrently;
+import com.github.dakusui.crest.core.ExecutionFailure;
+import com.github.dakusui.crest.core.Report;
+import com.github.dakusui.crest.utils.TestBase;
+import org.junit.Test;
+import org.opentest4j.AssertionFailedError;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.github.dakusui.crest.Crest.*;
+import static org.junit.Assert.*;
+
+public class ConcurrentlyTest extends TestBase {
+  @Test
+  public void givenSlowBlocks$whenAssertAllConcurrently$thenRunAtOnce() {
+    Set<Long> threads = ConcurrentHashMap.newKeySet();
+    long before = System.currentTimeMillis();
+    assertAllConcurrently(
+        () -> probe(threads, "a"),
+        () -> probe(threads, "b"),
+        () -> probe(threads, "c"),
+        () -> probe(threads, "d")
+    );
+    long elapsed = System.currentTimeMillis() - before;
+
+    assertTrue("elapsed:" + elapsed, elapsed < 1_000);
+    assertEquals(4, threads.size());
+  }
+
+  @Test
+  public void givenFailingBlocks$whenAssertAllConcurrently$thenAggregatedInBlockOrder() {
+    try {
+      assertAllConcurrently(
+          "probes",
+          () -> assertThat("hello", asString().startsWith("h").$()),
+          () -> {
+            Thread.sleep(200);
+            assertThat("first", "hello", asString().startsWith("H").$());
+          },
+          () -> assertThat(1, asInteger().gt(0).$()),
+          () -> {
+            throw new IllegalStateException("second");
+          }
+      );
+      fail();
+    } catch (ExecutionFailure e) {
+      String actual = String.valueOf(e.getActual().getValue());
+      System.out.println(actual);
+      assertEquals("probes", e.getMessage());
+      assertTrue(e.getCause() instanceof AssertionFailedError);
+      assertEquals("first", e.getCause().getMessage());
+      assertEquals(1, e.getSuppressed().length);
+      assertEquals("second", e.getSuppressed()[0].getMessage());
+      assertTrue(actual.startsWith("[1] x=\"hello\""));
+      assertTrue(actual.contains("[3] java.lang.IllegalStateException: second"));
+      assertTrue(String.valueOf(e.getExpected().getValue()).contains("[3] no exception"));
+    }
+  }
+
+  @Test
+  public void givenNoBlocks$whenRun$thenSuccessful() {
+    Report report = Concurrently.run();
+
+    assertTrue(report.isSuccessful());
+    assertTrue(report.exceptions().isEmpty());
+  }
+
+  private static void probe(Set<Long> threads, String name) throws InterruptedException {
+    threads.add(Thread.currentThread().getId());
+    Thread.sleep(300);
+    assertThat(name, asString().startsWith(name).$());
+  }
+}
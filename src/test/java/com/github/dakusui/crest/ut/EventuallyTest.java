@@ -0,0 +1,148 @@
+package com.github.dakusui.crest.ut;
+
+import com.github.dakusui.crest.core.Clock;
+import com.github.dakusui.crest.core.Eventually;
+import com.github.dakusui.crest.core.Report;
+import com.github.dakusui.crest.utils.TestBase;
+import org.junit.Test;
+import org.opentest4j.AssertionFailedError;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.github.dakusui.crest.Crest.*;
+import static java.util.Arrays.asList;
+import static org.junit.Assert.*;
+
+public class EventuallyTest extends TestBase {
+  /**
+   * A clock whose time advances only when it sleeps.
+   */
+  static class VirtualClock implements Clock {
+    final List<Long> sleeps = new ArrayList<>();
+    long now = 0;
+
+    @Override
+    public long nanoTime() {
+      return now;
+    }
+
+    @Override
+    public void sleep(long nanos) {
+      sleeps.add(nanos);
+      now += nanos;
+    }
+  }
+
+  private static Eventually.Policy policy(VirtualClock clock) {
+    return Eventually.Policy.exponential(Duration.ofNanos(10), 2.0, Duration.ofNanos(50)).withJitter(0.0).withClock(clock);
+  }
+
+  @Test
+  public void givenValueSatisfiedAtThirdAttempt$whenAwait$thenSucceedsWithBackoff() {
+    VirtualClock clock = new VirtualClock();
+    AtomicInteger counter = new AtomicInteger(0);
+
+    Report report = Eventually.await(counter::incrementAndGet, asInteger().ge(3).$(), Duration.ofNanos(1000), policy(clock));
+
+    assertTrue(report.isSuccessful());
+    assertEquals(3, counter.get());
+    assertEquals(asList(10L, 20L), clock.sleeps);
+  }
+
+  @Test
+  public void givenNeverSatisfied$whenAwait$thenIntervalsCappedAndLastValueReported() {
+    VirtualClock clock = new VirtualClock();
+    AtomicInteger counter = new AtomicInteger(0);
+
+    Report report = Eventually.await(counter::incrementAndGet, asInteger().lt(0).$(), Duration.ofNanos(200), policy(clock));
+
+    System.out.println(report.mismatch());
+    assertFalse(report.isSuccessful());
+    assertEquals(asList(10L, 20L, 40L, 50L, 50L, 30L), clock.sleeps);
+    assertEquals(200L, clock.now);
+    assertEquals(7, counter.get());
+    assertTrue(report.mismatch().contains("[7] x=<7>"));
+    assertTrue(report.mismatch().endsWith("not satisfied after 7 attempt(s) in 0ms"));
+  }
+
+  @Test
+  public void givenJitter$whenAwait$thenEachSleepStaysWithinRange() {
+    VirtualClock clock = new VirtualClock();
+
+    Eventually.await(() -> 0, asInteger().lt(0).$(), Duration.ofNanos(10_000),
+        Eventually.Policy.fixed(Duration.ofNanos(100)).withJitter(0.5).withClock(clock).withRandom(new Random(1)));
+
+    assertTrue(clock.sleeps.size() > 10);
+    assertTrue(clock.sleeps.subList(0, clock.sleeps.size() - 1).stream().allMatch(v -> v >= 50 && v <= 150));
+    assertTrue(clock.sleeps.stream().distinct().count() > 1);
+  }
+
+  @Test
+  public void givenSupplierThrowingFirst$whenAwait$thenRetried() {
+    VirtualClock clock = new VirtualClock();
+    AtomicInteger counter = new AtomicInteger(0);
+
+    Report report = Eventually.await(() -> {
+      if (counter.incrementAndGet() < 3)
+        throw new IllegalStateException();
+      return "ready";
+    }, asString().equalTo("ready").$(), Duration.ofNanos(1000), policy(clock));
+
+    assertTrue(report.isSuccessful());
+    assertEquals(3, counter.get());
+  }
+
+  @Test
+  public void givenZeroTimeout$whenAwait$thenExaminedOnlyOnce() {
+    AtomicInteger counter = new AtomicInteger(0);
+
+    Report report = Eventually.await(counter::incrementAndGet, asInteger().lt(0).$(), Duration.ZERO, policy(new VirtualClock()));
+
+    assertFalse(report.isSuccessful());
+    assertEquals(1, counter.get());
+  }
+
+  @Test
+  public void givenTimeoutElapsedDuringAttempt$whenAwait$thenValueOfThatAttemptReported() {
+    VirtualClock clock = new VirtualClock();
+    AtomicInteger counter = new AtomicInteger(0);
+
+    Report report = Eventually.await(() -> {
+      clock.now += 1000;
+      return counter.incrementAndGet();
+    }, asInteger().lt(0).$(), Duration.ofNanos(500), policy(clock));
+
+    System.out.println(report.mismatch());
+    assertFalse(report.isSuccessful());
+    assertEquals(1, counter.get());
+    assertTrue(report.mismatch().contains("[1] x=<1>"));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void givenSupplierAlwaysThrowing$whenAwait$thenLastExceptionPropagated() {
+    Eventually.await(() -> {
+      throw new IllegalStateException();
+    }, asString().equalTo("ready").$(), Duration.ofNanos(100), policy(new VirtualClock()));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void givenZeroInterval$whenFixed$thenIllegalArgumentException() {
+    Eventually.Policy.fixed(Duration.ZERO);
+  }
+
+  @Test(expected = AssertionFailedError.class)
+  public void givenNeverSatisfied$whenAssertEventually$thenAssertionFailedError() {
+    assertEventually(() -> "hello", asString().startsWith("H").$(), Duration.ofMillis(50),
+        Eventually.Policy.fixed(Duration.ofMillis(10)));
+  }
+
+  @Test
+  public void givenSatisfiedLater$whenAssertEventually$thenPasses() {
+    long start = System.currentTimeMillis();
+    assertEventually(System::currentTimeMillis, asLong().ge(start + 30).$(), Duration.ofSeconds(5));
+  }
+}
@@ -0,0 +1,89 @@
+package com.github.dakusui.crest.ut;
+
+import com.github.dakusui.crest.Crest;
+import com.github.dakusui.crest.core.Matcher;
+import com.github.dakusui.crest.core.Report;
+import com.github.dakusui.crest.core.Session;
+import com.github.dakusui.crest.matcherbuilders.AsString;
+import com.github.dakusui.crest.matcherbuilders.primitives.AsBoolean;
+import com.github.dakusui.crest.utils.TestBase;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static com.github.dakusui.crest.Crest.*;
+import static org.junit.Assert.*;
+
+public class ImmutableBuilderTest extends TestBase {
+  private static final AsString<String> BASE = Crest.<String>asString().startsWith("h");
+
+  @SuppressWarnings("unchecked")
+  @Test
+  public void givenBuilder$whenCheckAdded$thenOriginalUnchanged() {
+    AsString<String> derived = BASE.endsWith("o");
+
+    assertTrue(Session.perform("hx", (Matcher<String>) BASE.$()).isSuccessful());
+    assertFalse(Session.perform("hx", (Matcher<String>) derived.$()).isSuccessful());
+    assertNotSame(BASE, derived);
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  public void givenEmptyBuilder$whenBuiltTwice$thenNoCheckAccumulated() {
+    AsString<String> builder = Crest.<String>asString();
+    builder.$();
+
+    assertTrue(Session.perform("hello", (Matcher<String>) builder.containsString("ell").$()).isSuccessful());
+    assertEquals(
+        Session.perform("x", (Matcher<String>) Crest.<String>asString().containsString("y").$()).mismatch(),
+        Session.perform("x", (Matcher<String>) builder.containsString("y").$()).mismatch());
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  public void givenAsBoolean$whenIsTrue$thenChecked() {
+    AsBoolean<Boolean> builder = asBoolean();
+
+    assertFalse(Session.perform(false, (Matcher<Boolean>) builder.isTrue().$()).isSuccessful());
+    assertTrue(Session.perform(false, (Matcher<Boolean>) builder.isFalse().$()).isSuccessful());
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  public void givenSharedBuilderAndMatcher$whenUsedByManyThreads$thenEachResultIsCorrect() throws Exception {
+    Matcher<String> shared = allOf(
+        BASE.$(),
+        asInteger("length").gt(3).$()
+    );
+    int numThreads = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+    ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+    CyclicBarrier barrier = new CyclicBarrier(numThreads);
+    try {
+      List<Future<Void>> futures = new ArrayList<>();
+      for (int t = 0; t < numThreads; t++) {
+        int id = t;
+        futures.add(executor.submit(() -> {
+          barrier.await();
+          for (int i = 0; i < 500; i++) {
+            String suffix = id + "-" + i;
+            Matcher<String> derived = (Matcher<String>) BASE.endsWith(suffix).$();
+            assertTrue(Session.perform("hello" + suffix, derived).isSuccessful());
+            assertFalse(Session.perform("hello", derived).isSuccessful());
+            assertTrue(Session.perform("hello", shared).isSuccessful());
+            Report report = Session.perform("hey", shared);
+            assertFalse(report.isSuccessful());
+            assertTrue(report.mismatch().contains("x->length()->castTo[Integer]->>[3]: NOT MET"));
+          }
+          return null;
+        }));
+      }
+      for (Future<Void> each : futures)
+        each.get();
+    } finally {
+      executor.shutdownNow();
+    }
+    assertTrue(Session.perform("hx", (Matcher<String>) BASE.$()).isSuccessful());
+  }
+}
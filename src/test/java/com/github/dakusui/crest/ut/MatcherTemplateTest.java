@@ -0,0 +1,112 @@
+package com.github.dakusui.crest.ut;
+
+import com.github.dakusui.crest.Crest;
+import com.github.dakusui.crest.core.Matcher;
+import com.github.dakusui.crest.core.Report;
+import com.github.dakusui.crest.core.Session;
+import com.github.dakusui.crest.matcherbuilders.MatcherTemplate;
+import com.github.dakusui.crest.utils.TestBase;
+import com.github.dakusui.thincrest_pcond.functions.Predicates;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.github.dakusui.crest.Crest.*;
+import static org.junit.Assert.*;
+
+public class MatcherTemplateTest extends TestBase {
+  private static final MatcherTemplate.Binary<String, String, String, String> TEMPLATE = Crest.<String>asString(call("substring", 1).$())
+      .isNotNull()
+      .template()
+      .with(String.class, Predicates::startsWith)
+      .with(String.class, Predicates::containsString);
+
+  @Test
+  public void givenTemplate$whenBoundToRows$thenEachRowExamined() {
+    assertThat("Hello, world", TEMPLATE.bind("ello", "world"));
+    assertThat("Goodbye", TEMPLATE.bind("oo", "bye"));
+    assertEquals(2, TEMPLATE.arity());
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  public void givenTemplate$whenBoundToFailingRow$thenReportedAsBuiltByBuilder() {
+    Report expected = Session.perform("Hello", (Matcher<String>) Crest.<String>asString(call("substring", 1).$())
+        .isNotNull()
+        .startsWith("ello")
+        .containsString("world").$());
+    Report actual = Session.perform("Hello", (Matcher<String>) TEMPLATE.bind("ello", "world"));
+
+    System.out.println(actual.mismatch());
+    assertFalse(actual.isSuccessful());
+    assertEquals(expected.expectation(), actual.expectation());
+    assertEquals(expected.mismatch(), actual.mismatch());
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  public void givenTemplate$whenBoundTwice$thenFunctionShared() {
+    AtomicInteger counter = new AtomicInteger(0);
+    MatcherTemplate.Unary<String, String, String> template = Crest.<String>asString(function("count", (String s) -> {
+      counter.incrementAndGet();
+      return s;
+    })).template().with(String.class, Predicates::startsWith);
+    Matcher<String> first = (Matcher<String>) template.bind("H");
+    Matcher<String> second = (Matcher<String>) template.bind("G");
+
+    Report report = Session.perform("Hello", allOf(first, not(second)));
+
+    assertTrue(report.isSuccessful());
+    assertEquals(1, counter.get());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void givenTemplate$whenBoundToWrongNumberOfArguments$thenIllegalArgument() {
+    TEMPLATE.bind("ello");
+  }
+
+  @Test
+  public void givenTemplateWithThreeParameters$whenBoundToRow$thenExamined() {
+    MatcherTemplate<String, Integer> template = Crest.<String>asInteger(call("length").$())
+        .template()
+        .with(Integer.class, Predicates::gt)
+        .with(Integer.class, Predicates::lt)
+        .with(Integer.class, Predicates::eq);
+
+    assertThat("Hello", template.bind(4, 6, 5));
+    assertEquals(3, template.arity());
+  }
+
+  @Test
+  public void givenTemplate$whenBoundToArgumentOfWrongType$thenIllegalArgumentNamesParameter() {
+    MatcherTemplate<String, String> untyped = TEMPLATE;
+    try {
+      untyped.bind("ello", 42);
+      fail();
+    } catch (IllegalArgumentException e) {
+      assertEquals(
+          "Argument <42> for parameter #1 is not an instance of <java.lang.String> but <java.lang.Integer>",
+          e.getMessage());
+    }
+  }
+
+  @Test
+  public void givenTemplate$whenBoundToNull$thenPassedToPredicateFactory() {
+    Report report = Session.perform("Hello", Crest.<String>asString()
+        .template()
+        .with(String.class, Predicates::equalTo)
+        .bind((String) null));
+
+    assertFalse(report.isSuccessful());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void givenPrimitiveParameterType$whenAdded$thenIllegalArgument() {
+    Crest.<String>asInteger(call("length").$()).template().with(int.class, Predicates::eq);
+  }
+
+  @Test
+  public void givenEmptyTemplate$whenBound$thenAlwaysSatisfied() {
+    assertThat("Hello", Crest.<String>asString().template().bind());
+  }
+}
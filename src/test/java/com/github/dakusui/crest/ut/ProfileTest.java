@@ -0,0 +1,139 @@
+package com.github.dakusui.crest.ut;
+
+import com.github.dakusui.crest.Crest;
+import com.github.dakusui.crest.core.Matcher;
+import com.github.dakusui.crest.core.Profile;
+import com.github.dakusui.crest.core.Session;
+import com.github.dakusui.crest.utils.TestBase;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import static com.github.dakusui.crest.Crest.*;
+import static org.junit.Assert.*;
+
+public class ProfileTest extends TestBase {
+  private static <T> Predicate<T> slow(String name, long millis, Predicate<T> predicate) {
+    return predicate(name, v -> {
+      try {
+        Thread.sleep(millis);
+      } catch (InterruptedException e) {
+        throw new RuntimeException(e);
+      }
+      return predicate.test(v);
+    });
+  }
+
+  @Test
+  public void givenSlowPredicate$whenProfile$thenItDominatesTheTree() {
+    Function<String, Integer> length = function("length", String::length);
+    Predicate<Integer> slowGt = slow("slowGt[3]", 20, v -> v > 3);
+    @SuppressWarnings("unchecked") Matcher<String> matcher = (Matcher<String>) allOf(
+        Crest.<String>asString().startsWith("h").$(),
+        asInteger(length).check(slowGt).lt(10).$()
+    );
+
+    Profile profile = Crest.profile("hello", matcher);
+
+    System.out.println(profile);
+    assertTrue(profile.report().isSuccessful());
+    assertEquals(1, profile.statisticsOf(slowGt).invocations());
+    assertTrue(profile.statisticsOf(slowGt).nanos() >= 20_000_000L);
+    assertTrue(profile.statisticsOf(slowGt).nanos() <= profile.totalNanos());
+    assertEquals(1, profile.statisticsOf(length).invocations());
+    assertEquals(1, profile.statisticsOf(length).memoHits());
+    String rendered = profile.render();
+    assertTrue(rendered.startsWith("total: "));
+    assertTrue(rendered.contains("\nand:["));
+    assertTrue(rendered.contains("\n      slowGt[3]"));
+  }
+
+  @Test
+  public void givenChainedFunction$whenProfile$thenEachLinkProfiled() {
+    Matcher<? super String> matcher = Crest.<String, Integer>asObject("toString").check(call("length").$(), Predicate.isEqual(5)).$();
+
+    Profile profile = Crest.profile("hello", matcher);
+
+    System.out.println(profile);
+    assertTrue(profile.render().contains("\n    y->length()"));
+  }
+
+  @Test
+  public void givenFailingValue$whenProfile$thenReportIsAvailableAndRenderingNotCounted() {
+    Function<String, Integer> length = function("length", String::length);
+    Matcher<? super String> matcher = asInteger(length).gt(10).$();
+
+    Profile profile = Crest.profile("hello", matcher);
+
+    System.out.println(profile);
+    System.out.println(profile.report().mismatch());
+    assertFalse(profile.report().isSuccessful());
+    assertTrue(profile.report().mismatch().contains("NOT MET"));
+    assertEquals(1, profile.statisticsOf(length).invocations());
+    assertEquals(0, profile.statisticsOf(length).memoHits());
+  }
+
+  @Test
+  public void givenShortCircuit$whenProfile$thenSkippedChildrenNotEvaluated() {
+    @SuppressWarnings("unchecked") Matcher<String> matcher = (Matcher<String>) allOf(
+        Matcher.Composite.Strategy.SHORT_CIRCUIT,
+        Crest.<String>asString().startsWith("x").$(),
+        Crest.<String>asString().endsWith("o").$()
+    );
+
+    String rendered = Crest.profile("hello", matcher).render();
+
+    System.out.println(rendered);
+    assertTrue(rendered.contains("not evaluated"));
+  }
+
+  @Test
+  public void givenCompiledMatcher$whenProfile$thenSourceIsProfiled() {
+    Function<String, Integer> length = function("length", String::length);
+    Matcher<? super String> matcher = asInteger(length).gt(3).$();
+
+    Profile profile = Crest.profile("hello", matcher.compile());
+
+    System.out.println(profile);
+    assertTrue(profile.report().isSuccessful());
+    assertEquals(1, profile.statisticsOf(length).invocations());
+    assertTrue(profile.render().contains("\n  x->length"));
+  }
+
+  @Test
+  public void givenCustomMatcher$whenProfile$thenRenderedAsSingleRow() {
+    Matcher<String> custom = new Matcher<String>() {
+      @Override
+      public boolean matches(String value, Session<String> session, List<Throwable> exceptions) {
+        return value.isEmpty();
+      }
+
+      @Override
+      public void describeExpectation(Session<String> session) {
+      }
+
+      @Override
+      public void describeMismatch(String value, Session<String> session) {
+      }
+
+      @Override
+      public String toString() {
+        return "isEmpty";
+      }
+    };
+    @SuppressWarnings("unchecked") Matcher<String> matcher = (Matcher<String>) allOf(
+        custom,
+        Crest.<String>asString().startsWith("h").$()
+    );
+
+    Profile profile = Crest.profile("hello", matcher);
+
+    String rendered = profile.render();
+    System.out.println(rendered);
+    assertFalse(profile.report().isSuccessful());
+    assertTrue(rendered.contains("\n  isEmpty"));
+    assertTrue(rendered.contains("not profiled"));
+  }
+}
@@ -29,6 +29,22 @@ public class ReflectiveFunctionsTest {
       );
     }
 
+    @Test
+    public void givenSameFunction$whenAppliedToValuesOfDifferentClasses$thenMethodResolvedForEach() {
+      assertEquals("Hello", ReflectiveFunctions.invoke("toString").apply("Hello"));
+      assertEquals("123", ReflectiveFunctions.invoke("toString").apply(123));
+      assertEquals("[1, 2]", ReflectiveFunctions.invoke("toString").apply(java.util.Arrays.asList(1, 2)));
+      assertEquals("Hello", ReflectiveFunctions.invoke("toString").apply("Hello"));
+    }
+
+    @Test
+    public void givenArgumentsOfDifferentClasses$whenApplied$thenMethodResolvedForEach() {
+      assertEquals("ello", ReflectiveFunctions.invoke("substring", 1).apply("Hello"));
+      assertEquals("el", ReflectiveFunctions.invoke("substring", 1, 3).apply("Hello"));
+      assertEquals(true, ReflectiveFunctions.invoke("contains", "ell").apply("Hello"));
+      assertEquals("ello", ReflectiveFunctions.invoke("substring", 1).apply("Hello"));
+    }
+
     @Test
     public void whenToString$thenLooksGood() {
       assertEquals(
@@ -0,0 +1,93 @@
+package com.github.dakusui.crest.ut;
+
+import com.github.dakusui.crest.Crest;
+import com.github.dakusui.crest.core.CompiledMatcher;
+import com.github.dakusui.crest.core.ExecutionFailure;
+import com.github.dakusui.crest.core.IntMatcher;
+import com.github.dakusui.crest.core.LongMatcher;
+import com.github.dakusui.crest.core.Matcher;
+import com.github.dakusui.crest.utils.TestBase;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static com.github.dakusui.crest.Crest.*;
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+public class RequireThatTest extends TestBase {
+  private static final IntMatcher              PERCENTAGE = IntMatcher.range(0, 101);
+  private static final LongMatcher             POSITIVE   = LongMatcher.gt(0L);
+  @SuppressWarnings("unchecked")
+  private static final CompiledMatcher<String> GREETING   = ((Matcher<String>) Crest.<String>asString().startsWith("h").endsWith("o").$()).compile();
+
+  @Test
+  public void givenValidValues$whenRequireThat$thenPasses() {
+    requireThat(100, PERCENTAGE);
+    requireThat(1L, POSITIVE);
+    requireThat("hello", GREETING);
+  }
+
+  @Test
+  public void givenInvalidInt$whenRequireThat$thenExecutionFailureExplainingIt() {
+    try {
+      requireThat("percentage", 101, PERCENTAGE);
+      fail();
+    } catch (ExecutionFailure e) {
+      String actual = String.valueOf(e.getActual().getValue());
+      System.out.println(actual);
+      assertTrue(actual.contains("x=<101>"));
+      assertTrue(actual.contains("x-><[101]: NOT MET"));
+    }
+  }
+
+  @Test(expected = ExecutionFailure.class)
+  public void givenInvalidLong$whenRequireThat$thenExecutionFailure() {
+    requireThat(0L, POSITIVE);
+  }
+
+  @Test
+  public void givenInvalidString$whenRequireThatWithCompiledMatcher$thenExecutionFailureExplainingIt() {
+    try {
+      requireThat("greeting", "hey", GREETING);
+      fail();
+    } catch (ExecutionFailure e) {
+      assertTrue(String.valueOf(e.getActual().getValue()).contains("x->endsWith[\"o\"]: NOT MET"));
+    }
+  }
+
+  @Test
+  public void givenBoxedMatcher$whenConvertedToIntMatcher$thenSameResult() {
+    @SuppressWarnings("unchecked")
+    IntMatcher matcher = IntMatcher.from((Matcher<Integer>) asInteger().gt(10).$());
+
+    assertTrue(matcher.test(11));
+    assertFalse(matcher.test(10));
+  }
+
+  @Test
+  public void givenValidValues$whenRequireThatManyTimes$thenNothingAllocated() {
+    java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+    assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+    com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) bean;
+    assumeTrue(threadBean.isThreadAllocatedMemorySupported() && threadBean.isThreadAllocatedMemoryEnabled());
+    long threadId = Thread.currentThread().getId();
+    int calls = 100_000;
+    requireManyTimes(calls);
+
+    long before = threadBean.getThreadAllocatedBytes(threadId);
+    requireManyTimes(calls);
+    long allocated = threadBean.getThreadAllocatedBytes(threadId) - before;
+
+    System.out.println("allocated:" + allocated + " bytes in " + calls + " iterations");
+    assertEquals(0, allocated / calls);
+  }
+
+  private static void requireManyTimes(int calls) {
+    for (int i = 0; i < calls; i++) {
+      requireThat(i % 101, PERCENTAGE);
+      requireThat(i + 1L, POSITIVE);
+      requireThat("hello", GREETING);
+    }
+  }
+}
@@ -0,0 +1,91 @@
+package com.github.dakusui.crest.ut;
+
+import com.github.dakusui.crest.Crest;
+import com.github.dakusui.crest.core.ExecutionFailure;
+import com.github.dakusui.crest.core.SampledCheck;
+import com.github.dakusui.crest.utils.TestBase;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.Random;
+
+import static com.github.dakusui.crest.Crest.requireThat;
+import static org.junit.Assert.*;
+
+public class SampledCheckTest extends TestBase {
+  private static SampledCheck<Integer> check(SampledCheck.Policy policy) {
+    return SampledCheck.create(Crest.<Integer>asInteger().ge(0).$(), policy);
+  }
+
+  private static int requireAll(SampledCheck<Integer> check, int value, int times) {
+    int failures = 0;
+    for (int i = 0; i < times; i++) {
+      try {
+        requireThat(value, check);
+      } catch (ExecutionFailure e) {
+        failures++;
+      }
+    }
+    return failures;
+  }
+
+  @Test
+  public void givenEveryNth$whenRequire$thenOnlyNthCallsAreEvaluated() {
+    SampledCheck<Integer> check = check(SampledCheck.Policy.everyNth(10));
+
+    int failures = requireAll(check, -1, 100);
+
+    assertEquals(10, failures);
+    assertEquals(10, check.evaluated());
+    assertEquals(90, check.skipped());
+    assertEquals(10, check.failed());
+  }
+
+  @Test
+  public void givenProbability$whenRequire$thenRoughlyThatRatioIsEvaluated() {
+    SampledCheck<Integer> check = check(SampledCheck.Policy.probability(0.1).withRandom(new Random(1)));
+
+    requireAll(check, 1, 10_000);
+
+    assertEquals(10_000, check.evaluated() + check.skipped());
+    assertTrue(check.evaluated() > 800 && check.evaluated() < 1200);
+    assertEquals(0, check.failed());
+  }
+
+  @Test
+  public void givenReportLimit$whenStormOfFailures$thenOnlyLimitedReportsPerInterval() {
+    EventuallyTest.VirtualClock clock = new EventuallyTest.VirtualClock();
+    SampledCheck<Integer> check = check(SampledCheck.Policy.always().withReportLimit(2, Duration.ofNanos(100)).withClock(clock));
+
+    assertEquals(50, requireAll(check, -1, 50));
+    assertEquals(48, check.suppressed());
+    clock.now += 100;
+    assertEquals(50, requireAll(check, -1, 50));
+
+    assertEquals(100, check.failed());
+    assertEquals(96, check.suppressed());
+  }
+
+  @Test
+  public void givenReportLimitReached$whenRequire$thenSuppressedFailureShowsNoStaleValue() {
+    SampledCheck<Integer> check = check(SampledCheck.Policy.always().withReportLimit(1, Duration.ofDays(1)));
+    try {
+      requireThat("first", -1, check);
+      fail();
+    } catch (ExecutionFailure e) {
+      assertTrue(String.valueOf(e.getExpected().getValue()).contains("x=<-1>"));
+      assertTrue(String.valueOf(e.getActual().getValue()).contains("x=<-1>"));
+    }
+    try {
+      requireThat("second", -2, check);
+      fail();
+    } catch (ExecutionFailure e) {
+      String expected = String.valueOf(e.getExpected().getValue());
+      System.out.println(expected);
+      assertTrue(expected.contains(">=[0]"));
+      assertFalse(expected.contains("-1"));
+      assertFalse(expected.contains("x="));
+      assertTrue(String.valueOf(e.getActual().getValue()).startsWith("(report suppressed"));
+    }
+  }
+}
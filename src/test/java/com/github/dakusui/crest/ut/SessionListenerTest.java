@@ -0,0 +1,125 @@
+package com.github.dakusui.crest.ut;
+
+import com.github.dakusui.crest.Crest;
+import com.github.dakusui.crest.core.Matcher;
+import com.github.dakusui.crest.core.SessionListener;
+import com.github.dakusui.crest.core.SessionStatistics;
+import com.github.dakusui.crest.utils.TestBase;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.opentest4j.AssertionFailedError;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static com.github.dakusui.crest.Crest.*;
+import static org.junit.Assert.*;
+
+public class SessionListenerTest extends TestBase {
+  private final SessionStatistics statistics = new SessionStatistics();
+
+  @Before
+  public void install() {
+    SessionListener.install(statistics);
+  }
+
+  @After
+  public void uninstall() {
+    SessionListener.uninstall(statistics);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Matcher<String> matcher(Function<String, Integer> length) {
+    return (Matcher<String>) allOf(
+        Crest.<String>asString().startsWith("h").$(),
+        asInteger(length).gt(3).lt(10).$()
+    );
+  }
+
+  @Test
+  public void givenStatisticsInstalled$whenAssertionsPerformed$thenAggregated() {
+    Function<String, Integer> length = function("length", String::length);
+    assertThat("hello", matcher(length));
+    try {
+      assertThat("hi", matcher(length));
+      fail();
+    } catch (AssertionFailedError ignored) {
+    }
+
+    System.out.println(statistics);
+    assertEquals(1, statistics.passed());
+    assertEquals(1, statistics.failed());
+    assertEquals(2, statistics.assertions().count());
+    assertEquals(1, statistics.reports().count());
+    assertEquals(2, statistics.functions().get(length).count());
+    assertTrue(statistics.memoMisses() > 0);
+    assertTrue(statistics.memoHits() > 0);
+    assertTrue(statistics.dominant(1).size() == 1);
+  }
+
+  @Test
+  public void givenUninstalled$whenAssertionPerformed$thenNothingRecorded() {
+    SessionListener.uninstall(statistics);
+
+    assertThat("hello", matcher(function("length", String::length)));
+
+    assertEquals(0, statistics.passed());
+    assertEquals(0, statistics.memoMisses());
+    assertTrue(statistics.functions().isEmpty());
+  }
+
+  @Test
+  public void givenTwoListeners$whenAssertionPerformed$thenBothNotified() {
+    List<String> events = new ArrayList<>();
+    SessionListener another = new SessionListener() {
+      @Override
+      public void assertionStarted(String message, Object value, Matcher<?> matcher) {
+        events.add("started:" + value);
+      }
+
+      @Override
+      public void assertionFinished(String message, Object value, Matcher<?> matcher, boolean passed, long elapsedNanos) {
+        events.add("finished:" + value + ":" + passed);
+      }
+    };
+    SessionListener.install(another);
+    try {
+      requireThat("hello", matcher(function("length", String::length)));
+    } finally {
+      SessionListener.uninstall(another);
+    }
+
+    assertEquals(1, statistics.passed());
+    assertEquals(2, events.size());
+    assertEquals("finished:hello:true", events.get(1));
+  }
+
+  @Test
+  public void givenFunctionsBeyondCap$whenApplied$thenAggregatedIntoOthers() {
+    SessionStatistics statistics = new SessionStatistics();
+    for (int i = 0; i < SessionStatistics.MAX_ENTRIES * 2; i++) {
+      statistics.functionApplied(function("f" + i, (String s) -> s), 1, false);
+      statistics.predicateTested(predicate("p" + i, (String s) -> true), 1, false);
+    }
+
+    assertEquals(SessionStatistics.MAX_ENTRIES + 1, statistics.functions().size());
+    assertEquals(SessionStatistics.MAX_ENTRIES + 1, statistics.predicates().size());
+    assertEquals(SessionStatistics.MAX_ENTRIES, statistics.functions().get(SessionStatistics.OTHERS).count());
+    assertEquals(SessionStatistics.MAX_ENTRIES, statistics.predicates().get(SessionStatistics.OTHERS).count());
+  }
+
+  @Test
+  public void givenLatencies$whenHistogram$thenPercentilesBoundedByPowersOfTwo() {
+    SessionStatistics.Histogram histogram = new SessionStatistics.Histogram();
+    for (int i = 1; i <= 100; i++)
+      histogram.record(i * 10L);
+
+    assertEquals(100, histogram.count());
+    assertEquals(1000, histogram.maxNanos());
+    assertEquals(505, histogram.meanNanos());
+    assertEquals(511, histogram.percentileNanos(50));
+    assertEquals(1000, histogram.percentileNanos(99));
+  }
+}
@@ -0,0 +1,506 @@
+package com.github.dakusui.crest.ut;
+
+import com.github.dakusui.crest.core.ChainedFunction;
+import com.github.dakusui.crest.core.EvaluationTimeoutException;
+import com.github.dakusui.crest.core.ExecutionFailure;
+import com.github.dakusui.crest.core.Matcher;
+import com.github.dakusui.crest.core.Report;
+import com.github.dakusui.crest.core.Session;
+import com.github.dakusui.crest.utils.TestBase;
+import org.junit.Test;
+import org.junit.experimental.runners.Enclosed;
+import org.junit.runner.RunWith;
+import org.opentest4j.AssertionFailedError;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static com.github.dakusui.crest.Crest.*;
+import static org.junit.Assert.*;
+
+@RunWith(Enclosed.class)
+public class SessionTest {
+  static class Target {
+    final int value;
+    int toStringCount = 0;
+    int hashCodeCount = 0;
+
+    Target(int value) {
+      this.value = value;
+    }
+
+    @Override
+    public String toString() {
+      toStringCount++;
+      return String.format("Target(%s)", value);
+    }
+
+    @Override
+    public int hashCode() {
+      hashCodeCount++;
+      return value;
+    }
+
+    @Override
+    public boolean equals(Object anotherObject) {
+      return anotherObject instanceof Target && ((Target) anotherObject).value == this.value;
+    }
+  }
+
+  /*
+   * Each link of a chain of 'next' returns a new node. Nodes of a chain share
+   * a counter of 'toString' calls.
+   */
+  static class Node {
+    final AtomicInteger toStringCount;
+    final int           depth;
+
+    Node(AtomicInteger toStringCount, int depth) {
+      this.toStringCount = toStringCount;
+      this.depth = depth;
+    }
+
+    public Node next() {
+      return new Node(toStringCount, depth + 1);
+    }
+
+    public int depth() {
+      return depth;
+    }
+
+    @Override
+    public String toString() {
+      toStringCount.incrementAndGet();
+      return String.format("Node(%s)", depth);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  static <T> Matcher<T> typed(Matcher<? super T> matcher) {
+    return (Matcher<T>) matcher;
+  }
+
+  public static class LazySnapshotTest extends TestBase {
+    @Test
+    public void givenPassingAssertion$whenPerformed$thenValueIsNotRendered() {
+      Target target = new Target(100);
+
+      assertThat(
+          target,
+          asInteger(function("value", (Target t) -> t.value)).gt(0).lt(1000).$()
+      );
+
+      assertEquals(0, target.toStringCount);
+    }
+
+    @Test
+    public void givenPassingAssertionOnIdentity$whenPerformed$thenValueIsNotRendered() {
+      Target target = new Target(100);
+
+      assertThat(target, asObject().isNotNull().$());
+
+      assertEquals(0, target.toStringCount);
+    }
+
+    @Test
+    public void givenFailingAssertion$whenPerformed$thenValueIsRenderedInReport() {
+      Target target = new Target(100);
+
+      String mismatch = null;
+      try {
+        assertThat(
+            target,
+            asInteger(function("value", (Target t) -> t.value)).gt(1000).$()
+        );
+      } catch (AssertionFailedError e) {
+        mismatch = String.valueOf(e.getActual().getValue());
+      }
+
+      System.out.println(mismatch);
+      assertTrue(target.toStringCount > 0);
+      assertTrue(String.valueOf(mismatch).contains("Target(100)"));
+    }
+
+    @Test
+    public void givenPassingAssertionOnChain$whenPerformed$thenNoValueIsRendered() {
+      AtomicInteger toStringCount = new AtomicInteger(0);
+
+      assertThat(
+          new Node(toStringCount, 0),
+          asInteger(call("next").andThen("next").andThen("next").andThen("depth").$()).equalTo(3).$()
+      );
+
+      assertEquals(0, toStringCount.get());
+    }
+
+    @Test
+    public void givenFailingAssertionOnChain$whenReportCreated$thenEachValueRendered() {
+      AtomicInteger toStringCount = new AtomicInteger(0);
+
+      String mismatch = Session.perform(
+          new Node(toStringCount, 0),
+          asInteger(call("next").andThen("next").andThen("depth").$()).equalTo(3).$()
+      ).mismatch();
+
+      System.out.println(mismatch);
+      assertTrue(mismatch.contains("<Node(0)>"));
+      assertTrue(mismatch.contains("<Node(1)>"));
+      assertTrue(mismatch.contains("<Node(2)>"));
+    }
+
+    @Test
+    public void givenStatefulChain$whenFails$thenEachLinkShowsStateAtThatTime() {
+      String mismatch = Session.perform(
+          new StringBuilder(),
+          asString(call("append", "a").andThen("append", "b").andThen("toString").$()).equalTo("x").$()
+      ).mismatch();
+
+      System.out.println(mismatch);
+      assertTrue(mismatch.contains("x=<>:StringBuilder did not satisfy"));
+      assertTrue(mismatch.contains("<a>:StringBuilder"));
+      assertTrue(mismatch.contains("<ab>:StringBuilder"));
+    }
+
+    @Test
+    public void givenFailingAssertion$whenReportCreated$thenRenderedOnlyOnce() {
+      Target target = new Target(100);
+
+      Session.perform(target, asInteger(function("value", (Target t) -> t.value)).gt(1000).$()).mismatch();
+
+      assertEquals(1, target.toStringCount);
+    }
+  }
+
+  public static class FastPassModeTest extends TestBase {
+    @Test
+    public void givenPassingMatcher$whenPerformedInFastPassMode$thenEvaluatedOnce() {
+      AtomicInteger counter = new AtomicInteger(0);
+
+      Report report = Session.Mode.FAST_PASS.perform(
+          "hello",
+          asString(function("count", (String s) -> {
+            counter.incrementAndGet();
+            return s;
+          })).startsWith("h").$()
+      );
+
+      assertTrue(report.isSuccessful());
+      assertEquals(1, counter.get());
+    }
+
+    @Test
+    public void givenFailingMatcher$whenPerformedInFastPassMode$thenSameReportAsDiagnosticMode() {
+      Matcher<String> matcher = allOf(
+          asString().startsWith("h").$(),
+          asInteger("length").gt(10).$()
+      );
+
+      Report fastPass = Session.Mode.FAST_PASS.perform("hello", matcher);
+      Report diagnostic = Session.Mode.DIAGNOSTIC.perform("hello", matcher);
+
+      assertFalse(fastPass.isSuccessful());
+      assertEquals(diagnostic.expectation(), fastPass.expectation());
+      assertEquals(diagnostic.mismatch(), fastPass.mismatch());
+    }
+
+    @Test
+    public void givenErrorThrowingMatcher$whenPerformedInFastPassMode$thenExceptionReported() {
+      Report report = Session.Mode.FAST_PASS.perform(
+          "hello",
+          asString(function("error", (String s) -> {
+            throw new IllegalStateException("error!");
+          })).startsWith("h").$()
+      );
+
+      assertFalse(report.isSuccessful());
+      assertFalse(report.exceptions().isEmpty());
+      assertTrue(report.exceptions().get(0) instanceof IllegalStateException);
+    }
+
+    @Test
+    public void givenFailingMatcher$whenPerformedWithLightweightSession$thenSameReportAsDiagnosticMode() {
+      Matcher<String> matcher = allOf(
+          asString().startsWith("h").$(),
+          asInteger("length").gt(10).$()
+      );
+
+      Report lightweight = Session.perform("hello", matcher, Session.lightweight());
+      Report diagnostic = Session.Mode.DIAGNOSTIC.perform("hello", matcher);
+
+      assertFalse(lightweight.isSuccessful());
+      assertEquals(diagnostic.expectation(), lightweight.expectation());
+      assertEquals(diagnostic.mismatch(), lightweight.mismatch());
+    }
+
+    @Test
+    public void givenErrorThrowingMatcher$whenPerformedWithLightweightSession$thenExceptionReported() {
+      Report report = Session.perform(
+          "hello",
+          asString(function("error", (String s) -> {
+            throw new IllegalStateException("error!");
+          })).startsWith("h").$(),
+          Session.lightweight()
+      );
+
+      assertFalse(report.isSuccessful());
+      assertEquals(1, report.exceptions().size());
+      assertTrue(report.exceptions().get(0) instanceof IllegalStateException);
+    }
+
+    @Test(expected = AssertionFailedError.class)
+    public void givenFailingMatcher$whenAssertedInFastPassMode$thenAssertionFailedError() {
+      Session.perform(
+          "", "hello", asString().startsWith("H").$(),
+          (msg, r, causes) -> new AssertionFailedError(msg, r.expectation(), r.mismatch()),
+          Session.Mode.FAST_PASS
+      );
+    }
+  }
+
+  public static class KeyPolicyTest extends TestBase {
+    @Test
+    public void givenIdentityPolicy$whenPerformed$thenHashCodeIsNotCalled() {
+      Target target = new Target(100);
+
+      Report report = Session.perform(
+          target,
+          asInteger(function("value", (Target t) -> t.value)).gt(1000).$(),
+          Session.create(Session.KeyPolicy.IDENTITY)
+      );
+
+      assertFalse(report.isSuccessful());
+      assertEquals(0, target.hashCodeCount);
+    }
+
+    @Test
+    public void givenEqualityPolicy$whenPerformed$thenHashCodeIsCalled() {
+      Target target = new Target(100);
+
+      Session.perform(
+          target,
+          asInteger(function("value", (Target t) -> t.value)).gt(1000).$(),
+          Session.create(Session.KeyPolicy.EQUALITY)
+      );
+
+      assertTrue(target.hashCodeCount > 0);
+    }
+
+    @Test
+    public void givenFailingMatcher$whenPerformedWithEachPolicy$thenSameReport() {
+      Matcher<String> matcher = allOf(
+          asString().startsWith("h").containsString("x").$(),
+          asInteger("length").gt(10).$()
+      );
+
+      Report identity = Session.perform("hello", matcher, Session.create(Session.KeyPolicy.IDENTITY));
+      Report equality = Session.perform("hello", matcher, Session.create(Session.KeyPolicy.EQUALITY));
+
+      assertEquals(equality.expectation(), identity.expectation());
+      assertEquals(equality.mismatch(), identity.mismatch());
+    }
+  }
+
+  public static class TraceTest extends TestBase {
+    @Test
+    public void givenFailingChain$whenPerformed$thenEachLinkEvaluatedOnce() {
+      AtomicInteger head = new AtomicInteger(0);
+      AtomicInteger tail = new AtomicInteger(0);
+
+      Report report = Session.perform(
+          "hello",
+          asString(ChainedFunction.create(function("head", (String s) -> {
+            head.incrementAndGet();
+            return s + "!";
+          })).andThen(function("tail", (String s) -> {
+            tail.incrementAndGet();
+            return s.toUpperCase();
+          }))).check(predicate("isEmpty", String::isEmpty)).$(),
+          Session.create()
+      );
+
+      assertFalse(report.isSuccessful());
+      assertTrue(report.mismatch().contains("HELLO!"));
+      assertEquals(1, head.get());
+      assertEquals(1, tail.get());
+    }
+
+    @Test
+    public void givenThrowingLeaf$whenPerformed$thenExceptionReportedOnce() {
+      Report report = Session.perform(
+          "hello",
+          asString(function("error", (String s) -> {
+            throw new IllegalStateException("error!");
+          })).startsWith("h").$(),
+          Session.create()
+      );
+
+      assertFalse(report.isSuccessful());
+      assertEquals(1, report.exceptions().size());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void givenSkippedChild$whenMismatchDescribed$thenEvaluatedOnce() {
+      AtomicInteger counter = new AtomicInteger(0);
+
+      Report report = Session.perform(
+          "hello",
+          allOf(
+              Matcher.Composite.Strategy.SHORT_CIRCUIT,
+              asString().startsWith("H").$(),
+              asString(function("count", (String s) -> {
+                counter.incrementAndGet();
+                return s;
+              })).endsWith("O").$()
+          ),
+          Session.create()
+      );
+
+      assertFalse(report.isSuccessful());
+      assertEquals(1, counter.get());
+    }
+  }
+
+  public static class ResetTest extends TestBase {
+    @Test
+    public void givenSessionUsedForFailure$whenReset$thenReusableAndPreviousReportIntact() {
+      Session<String> session = Session.create();
+
+      Report failure = Session.perform(
+          "hello",
+          typed(asString(function("error", (String s) -> {
+            throw new IllegalStateException("error!");
+          })).startsWith("h").$()),
+          session
+      );
+      String mismatch = failure.mismatch();
+      session.reset();
+      Report success = Session.perform("hello", typed(asString().startsWith("h").$()), session.reset());
+
+      assertTrue(success.isSuccessful());
+      assertEquals(mismatch, failure.mismatch());
+      assertEquals(1, failure.exceptions().size());
+    }
+
+    @Test
+    public void givenSessionReset$whenSameFailureRepeated$thenSameReport() {
+      Session<String> session = Session.create();
+      Matcher<String> matcher = allOf(
+          asString().startsWith("H").$(),
+          asInteger("length").gt(10).$()
+      );
+
+      Report first = Session.perform("hello", matcher, session);
+      Report second = Session.perform("hello", matcher, session.reset());
+
+      assertEquals(first.expectation(), second.expectation());
+      assertEquals(first.mismatch(), second.mismatch());
+    }
+
+    @Test
+    public void givenAssertionInsideAssertion$whenPerformed$thenBothWork() {
+      Report report = Session.Mode.DIAGNOSTIC.perform(
+          "hello",
+          asString(function("nested", (String s) -> {
+            requireThat(s, asString().startsWith("h").$());
+            return s;
+          })).endsWith("O").$()
+      );
+
+      assertFalse(report.isSuccessful());
+      assertTrue(report.mismatch().contains("endsWith"));
+      assertTrue(Session.Mode.DIAGNOSTIC.perform("hello", asString().startsWith("h").$()).isSuccessful());
+    }
+  }
+
+  public static class TimedTest extends TestBase {
+    /*
+     * Returns a function that blocks until it is interrupted. It gives up after
+     * a while only to keep a broken test from hanging, and then returns normally,
+     * which makes a test expecting a timeout fail.
+     */
+    private static Function<String, String> blocking(CountDownLatch interrupted) {
+      return function("block", (String s) -> {
+        try {
+          new CountDownLatch(1).await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+          interrupted.countDown();
+          throw new RuntimeException(e);
+        }
+        return s;
+      });
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void givenHangingLeaf$whenPerformedWithTimedSession$thenTimedOutAndPartiallyReported() throws InterruptedException {
+      CountDownLatch interrupted = new CountDownLatch(1);
+      Report report = Session.perform(
+          "hello",
+          allOf(
+              asString().startsWith("H").$(),
+              asString(blocking(interrupted)).endsWith("o").$()
+          ),
+          Session.timed(Duration.ofMillis(100), Duration.ofMinutes(1))
+      );
+
+      System.out.println(report.mismatch());
+      assertFalse(report.isSuccessful());
+      assertEquals(1, report.exceptions().size());
+      assertTrue(report.exceptions().get(0) instanceof EvaluationTimeoutException);
+      assertTrue(report.mismatch().contains("x->startsWith[\"H\"]: NOT MET"));
+      assertTrue(report.mismatch().contains("timed out"));
+      assertTrue(interrupted.await(10, TimeUnit.SECONDS));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void givenHangingLeaves$whenTotalDeadlineExceeded$thenRestTimedOut() throws InterruptedException {
+      CountDownLatch interrupted = new CountDownLatch(1);
+      Report report = Session.perform(
+          "hello",
+          allOf(
+              asString(blocking(interrupted)).endsWith("o").$(),
+              asString(blocking(interrupted)).endsWith("o").$(),
+              asString(blocking(interrupted)).endsWith("o").$(),
+              asString(blocking(interrupted)).endsWith("o").$(),
+              asString(blocking(interrupted)).endsWith("o").$()
+          ),
+          Session.timed(Duration.ofMinutes(1), Duration.ofMillis(100))
+      );
+
+      assertFalse(report.isSuccessful());
+      assertEquals(5, report.exceptions().size());
+      assertTrue(report.exceptions().stream().allMatch(e -> e instanceof EvaluationTimeoutException));
+      assertTrue(interrupted.await(10, TimeUnit.SECONDS));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void givenFastLeaves$whenPerformedWithTimedSession$thenSameAsDiagnostic() {
+      Matcher<String> matcher = allOf(
+          asString().startsWith("h").$(),
+          asInteger("length").gt(10).$()
+      );
+
+      Report expected = Session.perform("hello", matcher, Session.create());
+      Report actual = Session.perform("hello", matcher, Session.timed(Duration.ofSeconds(1), Duration.ofSeconds(5)));
+
+      assertTrue(Session.perform("hello", typed(asString().startsWith("h").$()), Session.timed(Duration.ofSeconds(1), Duration.ofSeconds(5))).isSuccessful());
+      assertEquals(expected.expectation(), actual.expectation());
+      assertEquals(expected.mismatch(), actual.mismatch());
+    }
+
+    @Test(expected = ExecutionFailure.class)
+    public void givenHangingLeaf$whenAssertedWithTimeouts$thenExecutionFailure() {
+      assertThat(
+          "", "hello",
+          asString(blocking(new CountDownLatch(1))).endsWith("o").$(),
+          Duration.ofMillis(100), Duration.ofSeconds(1)
+      );
+    }
+  }
+}
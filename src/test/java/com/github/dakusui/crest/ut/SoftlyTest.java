@@ -0,0 +1,88 @@
+package com.github.dakusui.crest.ut;
+
+import com.github.dakusui.crest.core.ExecutionFailure;
+import com.github.dakusui.crest.core.Softly;
+import com.github.dakusui.crest.utils.TestBase;
+import org.junit.Test;
+import org.opentest4j.AssertionFailedError;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static com.github.dakusui.crest.Crest.*;
+import static org.junit.Assert.*;
+
+public class SoftlyTest extends TestBase {
+  @Test
+  public void givenAllPassing$whenSoftly$thenPasses() {
+    softly(s -> s
+        .assertThat("hello", asString().startsWith("h").$())
+        .assertThat(123, asInteger().gt(100).$()));
+  }
+
+  @Test
+  public void givenSomeFailing$whenSoftly$thenAllFailuresReportedAtOnce() {
+    try {
+      softly(s -> s
+          .assertThat("first", "hello", asString().startsWith("H").$())
+          .assertThat("second", 123, asInteger().gt(100).$())
+          .assertThat("third", 123, asInteger().lt(100).$()));
+      fail();
+    } catch (AssertionFailedError e) {
+      String actual = String.valueOf(e.getActual().getValue());
+      String expected = String.valueOf(e.getExpected().getValue());
+      System.out.println(actual);
+      assertTrue(actual.contains("[1: first] x=\"hello\""));
+      assertTrue(actual.contains("[2: third] x=<123>"));
+      assertFalse(actual.contains("second"));
+      assertTrue(expected.contains("[2: third]"));
+    }
+  }
+
+  @Test
+  public void givenManyFailing$whenReported$thenOnlyFirstOnesRendered() {
+    Softly softly = Softly.create(2);
+    for (int i = 0; i < 5; i++)
+      softly.assertThat(i, asInteger().lt(0).$());
+
+    assertEquals(5, softly.failures());
+    assertFalse(softly.report().isSuccessful());
+    assertTrue(softly.report().mismatch().contains("[2] x=<1>"));
+    assertFalse(softly.report().mismatch().contains("[3]"));
+    assertTrue(softly.report().mismatch().endsWith("...and 3 more failure(s)"));
+  }
+
+  @Test(expected = ExecutionFailure.class)
+  public void givenThrowingMatcher$whenSoftly$thenExecutionFailure() {
+    softly(s -> s
+        .assertThat("hello", asString().startsWith("h").$())
+        .assertThat(null, asInteger(function("length", (String v) -> v.length())).gt(0).$()));
+  }
+
+  @Test(expected = AssertionFailedError.class)
+  public void givenNoReportKept$whenVerify$thenFails() {
+    Softly softly = Softly.create(0);
+    softly.assertThat(1, asInteger().lt(0).$());
+
+    assertFalse(softly.report().isSuccessful());
+    assertEquals("...and 1 more failure(s)", softly.report().mismatch());
+    softly.verify("");
+  }
+
+  @Test
+  public void givenValueModifiedBetweenFailures$whenReported$thenEachFailureDescribesItsOwnEvaluation() {
+    List<String> list = new ArrayList<>();
+    Function<List<String>, Integer> size = function("size", List::size);
+    Softly softly = Softly.create();
+    softly.assertThat("first", list, asInteger(size).gt(5).$());
+    list.add("hello");
+    softly.assertThat("second", list, asInteger(size).eq(0).$());
+
+    String mismatch = softly.report().mismatch();
+    System.out.println(mismatch);
+    assertEquals(2, softly.failures());
+    assertTrue(mismatch.contains("[2: second]"));
+    assertTrue(mismatch.contains("x->size=<1>"));
+  }
+}